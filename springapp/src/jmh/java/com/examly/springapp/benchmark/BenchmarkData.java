@@ -0,0 +1,42 @@
+package com.examly.springapp.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic catalog generator: the same seed always yields the same products, so
+ * results can be compared across commits.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20240601L;
+    static final int CATEGORIES = 20;
+    private static final int CHUNK = 1000;
+
+    private BenchmarkData() {
+    }
+
+    static String category(int index) {
+        return String.format("Category-%02d", index % CATEGORIES);
+    }
+
+    /** Inserts {@code count} products (on a fresh database) and returns their ids in ascending order. */
+    static List<Long> seedProducts(JdbcTemplate jdbcTemplate, int count, int stockQuantity) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Object[]> rows = new ArrayList<>(CHUNK);
+        for (int i = 0; i < count; i++) {
+            double price = Math.round((1.0 + random.nextDouble() * 999.0) * 100.0) / 100.0;
+            rows.add(new Object[]{"Product " + i, "Generated product " + i, price,
+                    category(random.nextInt(CATEGORIES)), stockQuantity, "SKU-" + i});
+            if (rows.size() == CHUNK || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into product (product_id, name, description, price, category, "
+                        + "stock_quantity, sku, is_active) values (next value for product_seq, ?, ?, ?, ?, ?, ?, true)", rows);
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForList("select product_id from product order by product_id", Long.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.model.Order;
+import com.examly.springapp.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert latency of large orders, where the cascaded order-item INSERTs dominate. Each
+ * line references a distinct product so stock work stays one batched statement and the
+ * difference between batched and row-by-row item inserts shows through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeOrderInsertBenchmark {
+
+    @Param({"50", "200"})
+    public int lineItems;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Map<String, Object> payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        orderService = context.getBean(OrderService.class);
+        List<Long> productIds = BenchmarkData.seedProducts(context.getBean(JdbcTemplate.class), lineItems, 1_000_000_000);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            items.add(Map.of("productId", productId, "quantity", 1));
+        }
+        payload = Map.of(
+                "customerName", "Benchmark Buyer",
+                "customerEmail", "buyer@example.com",
+                "shippingAddress", "1 Benchmark Way",
+                "orderItems", items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createLargeOrder() {
+        return orderService.createOrder(payload);
+    }
+}
@@ -0,0 +1,73 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.model.Order;
+import com.examly.springapp.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the repository timers and order counters on the order hot paths: the same
+ * calls with every meter enabled and with meters and repository timing switched off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"on", "off"})
+    public String metrics;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Map<String, Object> payload;
+    private Long orderId;
+    private boolean shipped;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "on".equals(metrics)
+                ? BenchmarkApplication.start()
+                : BenchmarkApplication.start(
+                        "--management.metrics.enable.all=false",
+                        "--management.metrics.data.repository.autotime.enabled=false");
+        orderService = context.getBean(OrderService.class);
+        List<Long> productIds = BenchmarkData.seedProducts(context.getBean(JdbcTemplate.class), 100, 1_000_000_000);
+        payload = Map.of(
+                "customerName", "Benchmark Buyer",
+                "customerEmail", "buyer@example.com",
+                "shippingAddress", "1 Benchmark Way",
+                "orderItems", List.of(Map.of("productId", productIds.get(0), "quantity", 1),
+                        Map.of("productId", productIds.get(1), "quantity", 1)));
+        orderId = orderService.createOrder(payload).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(payload);
+    }
+
+    @Benchmark
+    public Object getOrderById() {
+        return orderService.getOrderById(orderId);
+    }
+
+    @Benchmark
+    public Order updateOrderStatus() {
+        // Alternate so every call is a real transition and increments a counter
+        shipped = !shipped;
+        return orderService.updateOrderStatus(orderId, shipped ? "SHIPPED" : "PENDING");
+    }
+}
@@ -0,0 +1,57 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.model.Order;
+import com.examly.springapp.model.OrderItem;
+import com.examly.springapp.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing an {@link Order} graph with the same Jackson configuration the web
+ * layer uses, as the number of line items grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lineItems;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        order = Order.builder().id(1L).customerName("Benchmark Buyer").customerEmail("buyer@example.com")
+                .shippingAddress("1 Benchmark Way").status("PENDING").orderDate(LocalDateTime.of(2024, 6, 1, 12, 0))
+                .build();
+        List<OrderItem> items = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < lineItems; i++) {
+            Product product = Product.builder().productId((long) i + 1).name("Product " + i)
+                    .description("Generated product " + i).price(10.0 + i).category(BenchmarkData.category(i))
+                    .stockQuantity(100).build();
+            items.add(OrderItem.builder().id((long) i + 1).product(product).quantity(1 + i % 3)
+                    .priceAtPurchase(product.getPrice()).build());
+            total += product.getPrice() * (1 + i % 3);
+        }
+        order.setOrderItems(items);
+        order.setTotalAmount(total);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+}
@@ -0,0 +1,57 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link OrderService#createOrder} as the number of line items grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int lineItems;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Map<String, Object> payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        orderService = context.getBean(OrderService.class);
+        List<Long> productIds = BenchmarkData.seedProducts(context.getBean(JdbcTemplate.class), 1000, 1_000_000_000);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < lineItems; i++) {
+            items.add(Map.of("productId", productIds.get(i * 7 % productIds.size()), "quantity", 1 + i % 3));
+        }
+        payload = Map.of(
+                "customerName", "Benchmark Buyer",
+                "customerEmail", "buyer@example.com",
+                "shippingAddress", "1 Benchmark Way",
+                "orderItems", items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createOrder() {
+        return orderService.createOrder(payload);
+    }
+}
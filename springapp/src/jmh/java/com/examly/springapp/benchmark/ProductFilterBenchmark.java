@@ -0,0 +1,54 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a filtered, paged product listing as the catalog grows, with the listing
+ * cache enabled and disabled. The category cycles so the cached case is not a single key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"off", "on"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private final Pageable page = PageRequest.of(0, 20, Sort.by("price"));
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--product.cache.filter-max-size=" + ("on".equals(cache) ? 1000 : 0));
+        productService = context.getBean(ProductService.class);
+        BenchmarkData.seedProducts(context.getBean(JdbcTemplate.class), catalogSize, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object filterByCategoryAndPrice() {
+        String category = BenchmarkData.category(next++);
+        return productService.getFilteredProducts(category, 100.0, 500.0, page);
+    }
+}
@@ -0,0 +1,113 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.model.Product;
+import com.examly.springapp.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency distribution of {@link ProductSearchIndex} on a synthetic catalog whose
+ * vocabulary follows a skewed (roughly Zipfian) distribution. Queries are taken from
+ * product names as whole words, a word plus a typeahead prefix, or a word with one
+ * transposition typo. Run with {@code -prof gc} to see
+ * the per-query allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ro", "su", "ta", "vi", "ze", "po",
+            "an", "el", "is", "or", "un", "ber", "con", "dra", "fle", "gri"};
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"words", "prefix", "typo"})
+    public String queryKind;
+
+    private ProductSearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int n = i; ; n /= SYLLABLES.length) {
+                word.append(SYLLABLES[n % SYLLABLES.length]);
+                if (n < SYLLABLES.length) {
+                    break;
+                }
+            }
+            words[i] = word.toString();
+        }
+
+        index = new ProductSearchIndex(null, null);
+        List<Product> chunk = new ArrayList<>(10_000);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            String name = sentence(words, random, 3);
+            Product product = Product.builder().name(name).description(sentence(words, random, 12))
+                    .sku("SKU-" + i).category(BenchmarkData.category(random.nextInt(BenchmarkData.CATEGORIES)))
+                    .price(1.0).build();
+            product.setProductId((long) i + 1);
+            chunk.add(product);
+            if (chunk.size() == 10_000) {
+                index.indexAll(chunk);
+                chunk.clear();
+            }
+            if (i % 97 == 0 && names.size() < 3000) {
+                names.add(name);
+            }
+        }
+        index.indexAll(chunk);
+
+        queries = new String[names.size()];
+        for (int i = 0; i < queries.length; i++) {
+            String[] tokens = names.get(i).split(" ");
+            queries[i] = switch (queryKind) {
+                case "words" -> tokens[0] + " " + tokens[1];
+                case "prefix" -> tokens[0] + " " + tokens[1].substring(0, Math.min(3, tokens[1].length()));
+                default -> transpose(tokens[0]) + " " + tokens[2];
+            };
+        }
+    }
+
+    // Skewed choice: low word numbers are far more frequent, like natural text
+    private static String sentence(String[] words, SplittableRandom random, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble();
+            sentence.append(i == 0 ? "" : " ").append(words[(int) (u * u * u * words.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static String transpose(String word) {
+        if (word.length() < 5) {
+            return word;
+        }
+        char[] chars = word.toCharArray();
+        char c = chars[2];
+        chars[2] = chars[3];
+        chars[3] = c;
+        return new String(chars);
+    }
+
+    @Benchmark
+    public Object search() {
+        String query = queries[next++ % queries.length];
+        return index.search(query, 20);
+    }
+}
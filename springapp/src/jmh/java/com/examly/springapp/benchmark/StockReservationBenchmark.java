@@ -0,0 +1,59 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.ProductRepository;
+import com.examly.springapp.service.InMemoryStockReservationEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserving one unit of a single hot SKU from many threads: the in-memory CAS path
+ * against the conditional-UPDATE database path. Both run inside a transaction, as
+ * order placement does. Untracked products fall through to the database path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class StockReservationBenchmark {
+
+    @Param({"database", "memory"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private InMemoryStockReservationEngine engine;
+    private TransactionTemplate transactionTemplate;
+    private Map<Long, Integer> oneUnit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--stock.reservation.engine=memory");
+        engine = context.getBean(InMemoryStockReservationEngine.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        Product product = context.getBean(ProductRepository.class).save(Product.builder()
+                .name("Flash").description("Flash sale SKU").price(1.0).category("Deals")
+                .stockQuantity(Integer.MAX_VALUE).build());
+        if ("memory".equals(path)) {
+            engine.track(product.getId());
+        }
+        oneUnit = Map.of(product.getId(), 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean reserveOneUnit() {
+        return transactionTemplate.execute(status -> engine.reserve(oneUnit).isRejected());
+    }
+}
@@ -0,0 +1,78 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.config.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the closed-model load test against freshly booted applications in platform-thread
+ * and virtual-thread mode ({@code spring.threads.virtual.enabled}) at several client
+ * counts, and prints one comparison table. Virtual mode needs the harness itself to run
+ * on Java 21+ (for example {@code -Dloadtest.java=/path/to/jdk-21/bin/java}); on an older
+ * JVM it is skipped, and the table is labelled as covering the platform mode only.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec \
+ *     -Dloadtest.main=com.examly.springapp.loadtest.ExecutionModeComparison \
+ *     -Dloadtest.args="--clients=10,100,1000 --duration=30s --warmup=10s"
+ * </pre>
+ *
+ * Besides {@code --clients} (a list) and {@code --modes=platform,virtual}, every
+ * {@link LoadTestConfig} option is accepted. The default mix is order placement and
+ * product listing only.
+ */
+public final class ExecutionModeComparison {
+
+    private static final String DEFAULT_MIX = "createOrder:20,productsByCategory:80";
+
+    private ExecutionModeComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = {10, 100, 1000};
+        List<String> modes = List.of("platform", "virtual");
+        List<String> passThrough = new ArrayList<>(List.of("--mix=" + DEFAULT_MIX));
+        for (String arg : args) {
+            if (arg.startsWith("--clients=")) {
+                clientCounts = Arrays.stream(arg.substring(10).split(",")).mapToInt(Integer::parseInt).toArray();
+            } else if (arg.startsWith("--modes=")) {
+                modes = List.of(arg.substring(8).split(","));
+            } else {
+                passThrough.add(arg);
+            }
+        }
+        LoadTestConfig base = LoadTestConfig.parse(passThrough.toArray(String[]::new));
+
+        List<String> rows = new ArrayList<>();
+        List<String> measured = new ArrayList<>();
+        for (String mode : modes) {
+            boolean virtual = mode.equals("virtual");
+            if (virtual && !VirtualThreads.isSupported()) {
+                System.out.printf("Skipping virtual mode: Java %d has no virtual threads%n", Runtime.version().feature());
+                continue;
+            }
+            measured.add(mode);
+            for (int clients : clientCounts) {
+                List<String> applicationArgs = new ArrayList<>(List.of(base.applicationArgs()));
+                applicationArgs.add("--spring.threads.virtual.enabled=" + virtual);
+                LoadTestConfig config = base.withClients(clients,
+                        "target/loadtest-" + mode + "-" + clients + ".json", applicationArgs.toArray(String[]::new));
+                for (LoadTestRunner.Summary summary : new LoadTestRunner(config).run()) {
+                    rows.add(String.format("%-9s %8d  %-32s %9.1f %9.2f %9.2f %8d", mode, clients,
+                            summary.endpoint(), summary.throughput(), summary.p50(), summary.p99(), summary.errors()));
+                }
+            }
+        }
+
+        System.out.printf("%n%-9s %8s  %-32s %9s %9s %9s %8s%n",
+                "mode", "clients", "endpoint", "req/s", "p50 ms", "p99 ms", "errors");
+        rows.forEach(System.out::println);
+        if (measured.size() == 1) {
+            // One mode is a baseline, not a comparison; say so next to the numbers
+            System.out.printf("%nOnly %s mode was measured; these results do not compare execution modes%n",
+                    measured.get(0));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.examly.springapp.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadTestRunner}, all given as {@code --name=value}.
+ *
+ * <pre>
+ * --rate=200                 target arrivals per second (open model)
+ * --clients=100              closed model instead: this many clients, each sending its
+ *                            next request as soon as the previous one completes
+ * --duration=60s             measured phase
+ * --warmup=10s               unmeasured phase at the same rate
+ * --mix=createOrder:20,...   relative weights per operation (see {@link Operation})
+ * --products=10000           products seeded into the embedded database
+ * --users=200                users seeded into the embedded database
+ * --url=http://host:8080     drive an already running server instead of booting one
+ * --report=target/loadtest-report.json
+ * </pre>
+ */
+record LoadTestConfig(int rate, int clients, Duration duration, Duration warmup, Map<Operation, Integer> mix,
+                      int products, int users, String url, String report, String[] applicationArgs) {
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.startsWith("app.")) {
+                // --app.spring.threads.virtual.enabled=true is passed to the embedded application
+                applicationArgs.add("--" + arg.substring(6));
+            } else {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return new LoadTestConfig(
+                Integer.parseInt(options.getOrDefault("rate", "200")),
+                Integer.parseInt(options.getOrDefault("clients", "0")),
+                duration(options.getOrDefault("duration", "60s")),
+                duration(options.getOrDefault("warmup", "10s")),
+                mix(options.getOrDefault("mix", Operation.defaultMix())),
+                Integer.parseInt(options.getOrDefault("products", "10000")),
+                Integer.parseInt(options.getOrDefault("users", "200")),
+                options.get("url"),
+                options.getOrDefault("report", "target/loadtest-report.json"),
+                applicationArgs.toArray(String[]::new));
+    }
+
+    LoadTestConfig withClients(int clients, String report, String[] applicationArgs) {
+        return new LoadTestConfig(rate, clients, duration, warmup, mix, products, users, url, report, applicationArgs);
+    }
+
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            mix.put(Operation.byName(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,387 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.ECommerceAdminPanelApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator. Requests are started on a fixed schedule derived from
+ * the target rate, whether or not earlier requests have finished, and each one runs on
+ * its own (virtual, when the JVM supports it) thread. Latency is measured from the
+ * scheduled start, so a stalled server shows up in the tail instead of silently
+ * lowering the offered load.
+ *
+ * <p>With {@code --clients} it runs a closed model instead: a fixed number of clients
+ * each send their next request when the previous one completes, which measures the
+ * throughput and latency at a given concurrency (see {@link ExecutionModeComparison}).
+ *
+ * <p>Unless {@code --url} is given, the application is booted on a random port against
+ * an in-memory H2 database seeded with products and users.
+ */
+public final class LoadTestRunner {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int RECENT_ORDERS = 4096;
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final AtomicLongArray recentOrderIds = new AtomicLongArray(RECENT_ORDERS);
+    private final AtomicLong ordersCreated = new AtomicLong();
+    private final String executorKind;
+
+    private String baseUrl;
+    private List<Long> productIds;
+    private volatile boolean measuring;
+
+    record Summary(String endpoint, long requests, long errors, double throughput, double p50, double p99) {
+    }
+
+    /** Observes the embedded application during the measured phase; its readings go into the report. */
+    interface Probe {
+        void start(ConfigurableApplicationContext context);
+
+        Map<String, Object> stop();
+    }
+
+    private Probe probe;
+    private Map<String, Object> probeReadings = Map.of();
+
+    LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        ExecutorService virtual = virtualThreadExecutor();
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool();
+        this.executorKind = virtual != null ? "virtual threads" : "platform threads (JDK without virtual threads)";
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        for (Operation op : Operation.values()) {
+            stats.put(op, new Stats());
+        }
+    }
+
+    LoadTestRunner withProbe(Probe probe) {
+        this.probe = probe;
+        return this;
+    }
+
+    Map<String, Object> probeReadings() {
+        return probeReadings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        new LoadTestRunner(config).run();
+    }
+
+    // Looked up reflectively so the harness still compiles for the project's Java 17 release
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    List<Summary> run() throws Exception {
+        ConfigurableApplicationContext context = null;
+        try {
+            if (config.url() == null) {
+                context = bootApplication();
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                productIds = seedProducts(jdbcTemplate, config.products());
+                seedUsers(jdbcTemplate, config.users());
+            } else {
+                baseUrl = config.url();
+                productIds = discoverProducts();
+            }
+            System.out.printf("Driving %s at %s (%s), warmup %s, measured %s%n", baseUrl,
+                    config.clients() > 0 ? config.clients() + " concurrent clients" : config.rate() + " req/s",
+                    executorKind, config.warmup(), config.duration());
+
+            drive(config.warmup());
+            stats.values().forEach(Stats::reset);
+            measuring = true;
+            if (probe != null && context != null) {
+                probe.start(context);
+            }
+            long start = System.nanoTime();
+            drive(config.duration());
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (probe != null && context != null) {
+                probeReadings = probe.stop();
+            }
+
+            return report(seconds);
+        } finally {
+            executor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext bootApplication() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--catalog.reactive.url=r2dbc:h2:mem:///loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(config.applicationArgs()));
+        return new SpringApplicationBuilder(ECommerceAdminPanelApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static List<Long> seedProducts(JdbcTemplate jdbcTemplate, int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double price = Math.round((1.0 + random.nextDouble() * 999.0) * 100.0) / 100.0;
+            rows.add(new Object[]{"Product " + i, "Load test product " + i, price, category(random.nextInt(20)),
+                    1_000_000_000, "SKU-" + i});
+            if (rows.size() == 1000 || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into product (product_id, name, description, price, category, "
+                        + "stock_quantity, sku, is_active) values (next value for product_seq, ?, ?, ?, ?, ?, ?, true)", rows);
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForList("select product_id from product order by product_id", Long.class);
+    }
+
+    private static void seedUsers(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"user" + i, "user" + i + "@example.com", "x", "ORDER_MANAGER", "User", "No" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into users (username, email, password_hash, role, first_name, last_name, "
+                + "is_active, email_verified) values (?, ?, ?, ?, ?, ?, true, true)", rows);
+    }
+
+    private List<Long> discoverProducts() throws Exception {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/products?size=200")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode product : objectMapper.readTree(response.body()).path("content")) {
+            ids.add(product.get("id").asLong());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Target server has no products to order");
+        }
+        return ids;
+    }
+
+    private static String category(int index) {
+        return String.format("Category-%02d", index);
+    }
+
+    private void drive(Duration duration) throws InterruptedException {
+        if (duration.isZero()) {
+            return;
+        }
+        if (config.clients() > 0) {
+            driveClosed(duration);
+            return;
+        }
+        Operation[] table = weightedTable();
+        SplittableRandom random = new SplittableRandom(7);
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long intended = start; intended < end; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation op = table[random.nextInt(table.length)];
+            long seed = random.nextLong();
+            long scheduledAt = intended;
+            executor.execute(() -> execute(op, scheduledAt, new SplittableRandom(seed)));
+        }
+    }
+
+    private void driveClosed(Duration duration) throws InterruptedException {
+        Operation[] table = weightedTable();
+        long end = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(config.clients());
+        for (int client = 0; client < config.clients(); client++) {
+            SplittableRandom random = new SplittableRandom(7 + client);
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        execute(table[random.nextInt(table.length)], System.nanoTime(), random);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private Operation[] weightedTable() {
+        List<Operation> table = new ArrayList<>();
+        config.mix().forEach((op, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(op);
+            }
+        });
+        return table.toArray(Operation[]::new);
+    }
+
+    private void execute(Operation op, long scheduledAt, SplittableRandom random) {
+        Stats opStats = stats.get(op);
+        boolean ok;
+        try {
+            HttpResponse<String> response = httpClient.send(request(op, random), HttpResponse.BodyHandlers.ofString());
+            ok = response.statusCode() / 100 == 2;
+            if (ok && op == Operation.CREATE_ORDER) {
+                long id = objectMapper.readTree(response.body()).get("id").asLong();
+                recentOrderIds.set((int) (ordersCreated.getAndIncrement() % RECENT_ORDERS), id);
+            }
+        } catch (Exception ex) {
+            ok = false;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+        opStats.record(Math.min(micros, HIGHEST_TRACKABLE_MICROS), ok);
+    }
+
+    private HttpRequest request(Operation op, SplittableRandom random) throws Exception {
+        HttpRequest.Builder builder;
+        switch (op) {
+            case CREATE_ORDER -> {
+                List<Map<String, Object>> items = new ArrayList<>();
+                int lines = 1 + random.nextInt(5);
+                for (int i = 0; i < lines; i++) {
+                    items.add(Map.of("productId", productIds.get(random.nextInt(productIds.size())), "quantity", 1));
+                }
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "customerName", "Load Test", "customerEmail", "load@example.com",
+                        "shippingAddress", "1 Load St", "orderItems", items));
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }
+            case PRODUCTS_BY_CATEGORY -> builder = HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/api/products?category=" + category(random.nextInt(20)))).GET();
+            case UPDATE_ORDER_STATUS -> {
+                long created = ordersCreated.get();
+                long id = created == 0 ? 1 : recentOrderIds.get(random.nextInt((int) Math.min(created, RECENT_ORDERS)));
+                String status = random.nextBoolean() ? "SHIPPED" : "DELIVERED";
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/" + id + "/status"))
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\"}"));
+            }
+            case LIST_ORDERS -> builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders?limit=50")).GET();
+            case REACTIVE_PRODUCTS_BY_CATEGORY -> builder = HttpRequest.newBuilder(URI.create(baseUrl
+                    + "/api/reactive/products?limit=20&category=" + category(random.nextInt(20))))
+                    .header("Accept", "application/x-ndjson").GET();
+            case LIST_USERS -> builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users?limit=50")).GET();
+            default -> throw new IllegalStateException("Unhandled operation " + op);
+        }
+        return builder.timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private List<Summary> report(double seconds) throws Exception {
+        List<Summary> summaries = new ArrayList<>();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("targetRate", config.rate());
+        json.put("clients", config.clients());
+        json.put("durationSeconds", seconds);
+        json.put("executor", executorKind);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+
+        System.out.printf("%n%-32s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram h = entry.getValue().histogram;
+            long count = h.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            long errors = entry.getValue().errors.sum();
+            System.out.printf("%-32s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().label(), count, errors, count / seconds,
+                    ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0);
+            summaries.add(new Summary(entry.getKey().label(), count, errors, count / seconds, ms(h, 50), ms(h, 99)));
+
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("requests", count);
+            endpoint.put("errors", errors);
+            endpoint.put("errorRate", (double) errors / count);
+            endpoint.put("throughput", count / seconds);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            for (double p : new double[]{50, 90, 99, 99.9}) {
+                latency.put("p" + p, ms(h, p));
+            }
+            latency.put("max", h.getMaxValue() / 1000.0);
+            latency.put("mean", h.getMean() / 1000.0);
+            endpoint.put("latencyMillis", latency);
+            endpoints.put(entry.getKey().label(), endpoint);
+        }
+        json.put("endpoints", endpoints);
+        if (!probeReadings.isEmpty()) {
+            json.put("probe", probeReadings);
+            System.out.println("\n" + probeReadings);
+        }
+
+        File report = new File(config.report());
+        if (report.getParentFile() != null) {
+            report.getParentFile().mkdirs();
+        }
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, json);
+        System.out.println("\nReport written to " + report.getPath());
+        return summaries;
+    }
+
+    private static double ms(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class Stats {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long micros, boolean ok) {
+            histogram.recordValue(micros);
+            if (!ok) {
+                errors.increment();
+            }
+        }
+
+        void reset() {
+            histogram.reset();
+            errors.reset();
+        }
+    }
+}
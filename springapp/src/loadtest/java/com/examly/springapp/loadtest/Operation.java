@@ -0,0 +1,47 @@
+package com.examly.springapp.loadtest;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The requests the load test can issue, with their default share of the mix.
+ */
+enum Operation {
+    CREATE_ORDER("createOrder", "POST /api/orders", 20),
+    PRODUCTS_BY_CATEGORY("productsByCategory", "GET /api/products?category=", 50),
+    UPDATE_ORDER_STATUS("updateOrderStatus", "PATCH /api/orders/{id}/status", 10),
+    LIST_ORDERS("listOrders", "GET /api/orders", 10),
+    LIST_USERS("listUsers", "GET /api/users", 10),
+    // Not in the default mix; compared against productsByCategory by ReactiveCatalogComparison
+    REACTIVE_PRODUCTS_BY_CATEGORY("reactiveProductsByCategory", "GET /api/reactive/products?category=", 0);
+
+    private final String key;
+    private final String label;
+    private final int defaultWeight;
+
+    Operation(String key, String label, int defaultWeight) {
+        this.key = key;
+        this.label = label;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Operation byName(String key) {
+        return Arrays.stream(values())
+                .filter(op -> op.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + key));
+    }
+
+    static String defaultMix() {
+        return Arrays.stream(values()).filter(op -> op.defaultWeight > 0)
+                .map(op -> op.key + ":" + op.defaultWeight).collect(Collectors.joining(","));
+    }
+}
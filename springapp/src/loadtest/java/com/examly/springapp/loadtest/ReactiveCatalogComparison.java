@@ -0,0 +1,148 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.repository.ReactiveCatalogRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.catalina.connector.Connector;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Lists products by category through the blocking JPA endpoint
+ * ({@code GET /api/products}) and the reactive R2DBC one ({@code GET /api/reactive/products})
+ * with the same number of concurrent clients, and prints throughput, latency and the peak
+ * number of busy Tomcat request threads and database connections in use for each.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec \
+ *     -Dloadtest.main=com.examly.springapp.loadtest.ReactiveCatalogComparison \
+ *     -Dloadtest.args="--clients=50,200 --duration=30s --warmup=10s"
+ * </pre>
+ *
+ * Besides {@code --clients} (a list), every {@link LoadTestConfig} option is accepted. The
+ * filtered-listing cache is switched off so that both paths query the database.
+ */
+public final class ReactiveCatalogComparison {
+
+    private static final Map<String, String> PATHS = Map.of(
+            "blocking", "productsByCategory:1",
+            "reactive", "reactiveProductsByCategory:1");
+
+    private ReactiveCatalogComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = {50, 200};
+        List<String> passThrough = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--clients=")) {
+                clientCounts = Arrays.stream(arg.substring(10).split(",")).mapToInt(Integer::parseInt).toArray();
+            } else {
+                passThrough.add(arg);
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        for (String path : List.of("blocking", "reactive")) {
+            List<String> pathArgs = new ArrayList<>(passThrough);
+            pathArgs.add("--mix=" + PATHS.get(path));
+            LoadTestConfig base = LoadTestConfig.parse(pathArgs.toArray(String[]::new));
+            // Listing pages would otherwise come from the product cache and never reach the pool
+            List<String> applicationArgs = new ArrayList<>(List.of(base.applicationArgs()));
+            applicationArgs.add("--product.cache.filter-max-size=0");
+            for (int clients : clientCounts) {
+                LoadTestRunner runner = new LoadTestRunner(base.withClients(clients,
+                        "target/loadtest-catalog-" + path + "-" + clients + ".json",
+                        applicationArgs.toArray(String[]::new)))
+                        .withProbe(new ResourceProbe());
+                for (LoadTestRunner.Summary summary : runner.run()) {
+                    Map<String, Object> peaks = runner.probeReadings();
+                    rows.add(String.format("%-9s %8d %9.1f %9.2f %9.2f %8d %12s %12s %12s", path, clients,
+                            summary.throughput(), summary.p50(), summary.p99(), summary.errors(),
+                            peaks.get("peakBusyRequestThreads"), peaks.get("peakJdbcConnections"),
+                            peaks.get("peakR2dbcConnections")));
+                }
+            }
+        }
+
+        System.out.printf("%n%-9s %8s %9s %9s %9s %8s %12s %12s %12s%n", "path", "clients", "req/s",
+                "p50 ms", "p99 ms", "errors", "peak threads", "peak JDBC", "peak R2DBC");
+        rows.forEach(System.out::println);
+    }
+
+    /** Samples busy request threads and checked-out connections every millisecond and keeps the peaks. */
+    static final class ResourceProbe implements LoadTestRunner.Probe {
+
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final int[] peaks = new int[3];
+        private Thread sampler;
+
+        @Override
+        public void start(ConfigurableApplicationContext context) {
+            IntSupplier requestThreads = busyRequestThreads(context);
+            HikariDataSource hikari = hikari(context);
+            ReactiveCatalogRepository reactive = context.getBean(ReactiveCatalogRepository.class);
+            IntSupplier[] gauges = {
+                    requestThreads,
+                    () -> hikari.getHikariPoolMXBean() == null ? 0 : hikari.getHikariPoolMXBean().getActiveConnections(),
+                    () -> reactive.getConnectionPool().getMetrics().map(m -> m.acquiredSize()).orElse(0)
+            };
+            running.set(true);
+            sampler = new Thread(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < gauges.length; i++) {
+                        peaks[i] = Math.max(peaks[i], gauges[i].getAsInt());
+                    }
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }, "resource-probe");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+
+        @Override
+        public Map<String, Object> stop() {
+            running.set(false);
+            try {
+                sampler.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            Map<String, Object> readings = new LinkedHashMap<>();
+            readings.put("peakBusyRequestThreads", peaks[0]);
+            readings.put("peakJdbcConnections", peaks[1]);
+            readings.put("peakR2dbcConnections", peaks[2]);
+            return readings;
+        }
+
+        private static IntSupplier busyRequestThreads(ConfigurableApplicationContext context) {
+            TomcatWebServer webServer = (TomcatWebServer) ((WebServerApplicationContext) context).getWebServer();
+            Connector connector = webServer.getTomcat().getConnector();
+            return () -> connector.getProtocolHandler().getExecutor() instanceof ThreadPoolExecutor pool
+                    ? pool.getActiveCount() : 0;
+        }
+
+        private static HikariDataSource hikari(ConfigurableApplicationContext context) {
+            try {
+                return context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Load test expects a Hikari connection pool", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.examly.springapp.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows observed latency (AIMD): a request finishing within the
+ * latency target while at least half the limit was in use raises the limit by one; a
+ * slower or failed one multiplies it by the backoff ratio. Requests over the limit wait,
+ * oldest first, in a bounded queue until the queue timeout; once the queue is full or the
+ * timeout passes they are turned away.
+ */
+final class AdaptiveLimiter {
+
+    record Settings(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget, double backoffRatio,
+                    int maxQueue, Duration queueTimeout) {
+    }
+
+    private final Settings settings;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private double averageLatencyNanos;
+
+    AdaptiveLimiter(Settings settings) {
+        this.settings = settings;
+        this.limit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), settings.initialLimit()));
+    }
+
+    /** Waits for a slot up to the queue timeout; {@code null} means the request should be shed. */
+    Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit && queued >= settings.maxQueue()) {
+                return null;
+            }
+            queued++;
+            try {
+                long remaining = settings.queueTimeout().toNanos();
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return new Permit(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            int wasInFlight = inFlight--;
+            if (failed || latencyNanos > settings.latencyTarget().toNanos()) {
+                limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+            } else if (wasInFlight * 2 >= limit) {
+                limit = Math.min(settings.maxLimit(), limit + 1);
+            }
+            averageLatencyNanos = averageLatencyNanos == 0 ? latencyNanos
+                    : averageLatencyNanos * 0.9 + latencyNanos * 0.1;
+            for (int free = (int) limit - inFlight; free > 0; free--) {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Rough time until a request arriving now would get a slot, for {@code Retry-After}. */
+    long retryAfterSeconds() {
+        lock.lock();
+        try {
+            double waitNanos = averageLatencyNanos * (queued + 1) / Math.max(1, (int) limit);
+            return Math.max(1, (long) Math.ceil(waitNanos / TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight;
+    }
+
+    int queued() {
+        return queued;
+    }
+
+    /** A held slot; releasing it more than once has no further effect. */
+    final class Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveLimiter.this.release(System.nanoTime() - startNanos, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.examly.springapp.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Puts a controller method (or every method of a controller) into a compartment whose
+ * concurrency is capped by {@link BulkheadInterceptor}. Compartments are independent, so
+ * saturated order writes cannot take the capacity that catalog reads need. Each is
+ * configured under {@code bulkhead.<name>.*}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    String ORDER_WRITES = "order-writes";
+    String CATALOG_READS = "catalog-reads";
+    String ADMIN_REPORTS = "admin-reports";
+
+    String value();
+}
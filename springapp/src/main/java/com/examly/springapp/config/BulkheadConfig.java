@@ -0,0 +1,29 @@
+package com.examly.springapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Installs {@link BulkheadInterceptor} unless {@code bulkhead.enabled=false}. The order
+ * writes compartment is capped below the connection pool size, so a burst of orders
+ * always leaves connections for reads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    public BulkheadConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.bulkheadInterceptor = new BulkheadInterceptor(environment, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,167 @@
+package com.examly.springapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission control for handlers marked {@link Bulkhead}. Every compartment has its own
+ * {@link AdaptiveLimiter}: requests over its current limit queue until
+ * {@code bulkhead.<name>.queue-timeout}, and requests that find the queue full or time out
+ * get {@code 503} with a {@code Retry-After} estimated from the backlog. The slot is held
+ * until the response is complete, including streamed bodies.
+ *
+ * <p>Per compartment it publishes {@code bulkhead.limit}, {@code bulkhead.in.flight} and
+ * {@code bulkhead.queued}, {@code bulkhead.requests} by outcome (admitted, shed) and
+ * {@code bulkhead.queue.wait}.
+ */
+@Slf4j
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = BulkheadInterceptor.class.getName() + ".permit";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public BulkheadInterceptor(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        // The dispatch that completes an async request already holds its slot
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Bulkhead bulkhead = method.getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            bulkhead = method.getBeanType().getAnnotation(Bulkhead.class);
+        }
+        if (bulkhead == null) {
+            return true;
+        }
+
+        String compartment = bulkhead.value();
+        AdaptiveLimiter limiter = limiters.computeIfAbsent(compartment, this::createLimiter);
+        long queuedAt = System.nanoTime();
+        AdaptiveLimiter.Permit permit;
+        try {
+            permit = limiter.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+        Timer.builder("bulkhead.queue.wait")
+                .description("Time requests wait for a bulkhead slot, whether or not they get one")
+                .tag("compartment", compartment)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - queuedAt));
+        count(compartment, permit == null ? "shed" : "admitted");
+
+        if (permit == null) {
+            long retryAfter = limiter.retryAfterSeconds();
+            log.warn("Shedding {} {}: bulkhead {} is at its limit of {}", request.getMethod(),
+                    request.getRequestURI(), compartment, (int) limiter.limit());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many concurrent " + compartment
+                    + " requests, retry in " + retryAfter + "s\"}");
+            return false;
+        }
+        request.setAttribute(PERMIT, permit);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (!(request.getAttribute(PERMIT) instanceof AdaptiveLimiter.Permit permit)) {
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                permit.release(false);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                permit.release(true);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                permit.release(true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!request.isAsyncStarted() && request.getAttribute(PERMIT) instanceof AdaptiveLimiter.Permit permit) {
+            // Server errors (pool timeouts among them) count as overload, like slow responses
+            permit.release(ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private AdaptiveLimiter createLimiter(String compartment) {
+        String prefix = "bulkhead." + compartment + ".";
+        AdaptiveLimiter limiter = new AdaptiveLimiter(new AdaptiveLimiter.Settings(
+                environment.getProperty(prefix + "initial-limit", Integer.class, 10),
+                environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                environment.getProperty(prefix + "max-limit", Integer.class, 100),
+                environment.getProperty(prefix + "latency-target", Duration.class, Duration.ofMillis(500)),
+                environment.getProperty(prefix + "backoff-ratio", Double.class, 0.9),
+                environment.getProperty(prefix + "max-queue", Integer.class, 50),
+                environment.getProperty(prefix + "queue-timeout", Duration.class, Duration.ofSeconds(1))));
+        Gauge.builder("bulkhead.limit", limiter, AdaptiveLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("compartment", compartment)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.in.flight", limiter, AdaptiveLimiter::inFlight)
+                .description("Requests holding a bulkhead slot")
+                .tag("compartment", compartment)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", limiter, AdaptiveLimiter::queued)
+                .description("Requests waiting for a bulkhead slot")
+                .tag("compartment", compartment)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private void count(String compartment, String outcome) {
+        Counter.builder("bulkhead.requests")
+                .description("Requests reaching a bulkhead, by whether they were admitted")
+                .tag("compartment", compartment)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
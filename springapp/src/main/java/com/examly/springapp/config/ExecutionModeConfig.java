@@ -0,0 +1,42 @@
+package com.examly.springapp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Reports which execution mode the application runs in. {@code spring.threads.virtual.enabled}
+ * switches Tomcat request handling, async MVC responses (such as the streamed order export)
+ * and the fulfilment stages to virtual threads; Spring Boot only honours it on Java 21+,
+ * so on an older runtime the switch is reported and the platform pools stay in place. In virtual mode request
+ * concurrency is no longer capped by the Tomcat pool, so the Hikari pool (and its
+ * connection timeout) becomes the limit for blocking JPA work; the task executor behind
+ * async responses is capped at the pool size as well.
+ */
+@Slf4j
+@Configuration
+public class ExecutionModeConfig {
+
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> executionModeReport(Environment environment) {
+        return event -> {
+            boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            int connections = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+            if (requested && !VirtualThreads.isSupported()) {
+                log.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual threads; "
+                        + "using platform thread pools", Runtime.version().feature());
+            }
+            if (requested && VirtualThreads.isSupported()) {
+                log.info("Execution mode: virtual threads; {} database connections, async response concurrency limit {}",
+                        connections, environment.getProperty("spring.task.execution.simple.concurrency-limit", "unbounded"));
+            } else {
+                log.info("Execution mode: platform threads; Tomcat max {} threads, async response pool max {}, {} database connections",
+                        environment.getProperty("server.tomcat.threads.max", "200"),
+                        environment.getProperty("spring.task.execution.pool.max-size", "unbounded"), connections);
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.examly.springapp.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Moves the pooled id sequences of orders, order items and products past the ids already
+ * in their tables. Those ids used to be IDENTITY columns, so on an existing database the
+ * sequences that {@code ddl-auto=update} creates start at 1 and would hand out ids that are
+ * taken. The pooled optimizer uses the {@link #ALLOCATION_SIZE} ids up to each value it
+ * reads, so a sequence is safe once its next value is at least {@code max(id) + 50}.
+ *
+ * <p>Runs once at startup, after the schema update and before requests can insert. A
+ * sequence already past that point is left alone, so restarts and several instances
+ * starting together are harmless. On MySQL, which has no sequences, Hibernate keeps each
+ * next value in a one-row table; elsewhere the sequence is restarted.
+ */
+@Slf4j
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    /** The {@code allocationSize} of every sequence below; they must agree. */
+    static final int ALLOCATION_SIZE = 50;
+
+    record PooledSequence(String name, String table, String idColumn) {
+    }
+
+    static final List<PooledSequence> SEQUENCES = List.of(
+            new PooledSequence("orders_seq", "orders", "id"),
+            new PooledSequence("order_item_seq", "order_item", "id"),
+            new PooledSequence("product_seq", "product", "product_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        for (PooledSequence sequence : SEQUENCES) {
+            seed(sequence, dialect);
+        }
+    }
+
+    private void seed(PooledSequence sequence, Dialect dialect) {
+        Long maxId = jdbcTemplate.queryForObject(
+                "select max(" + sequence.idColumn() + ") from " + sequence.table(), Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long required = maxId + ALLOCATION_SIZE;
+        if (isTable(sequence.name())) {
+            // The guard keeps a value another instance already moved further
+            int moved = jdbcTemplate.update("update " + sequence.name() + " set next_val = ? where next_val < ?",
+                    required, required);
+            if (moved > 0) {
+                log.info("Moved id table {} to {} past max({}.{}) = {}",
+                        sequence.name(), required, sequence.table(), sequence.idColumn(), maxId);
+            }
+            return;
+        }
+        // Reading the next value spends one block, which is cheaper than reading it portably
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence.name()), Long.class);
+        if (next != null && next < required) {
+            jdbcTemplate.execute("alter sequence " + sequence.name() + " restart with " + required);
+            log.info("Restarted sequence {} at {} past max({}.{}) = {}",
+                    sequence.name(), required, sequence.table(), sequence.idColumn(), maxId);
+        }
+    }
+
+    private boolean isTable(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String candidate : List.of(name, name.toUpperCase())) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, candidate,
+                        new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,16 @@
+package com.examly.springapp.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Maximum number of SQL statements a controller method may execute per request, counted
+ * by {@link QueryBudgetFilter}. A JDBC batch counts as one statement. Going over the
+ * budget logs a warning, or fails the request when {@code sql.query-budget.mode=fail}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,8 @@
+package com.examly.springapp.config;
+
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
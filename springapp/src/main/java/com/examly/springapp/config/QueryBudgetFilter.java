@@ -0,0 +1,215 @@
+package com.examly.springapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL statements each request executes, including lazy loads during response
+ * rendering, and logs a one-line summary with the total DB time at debug level. Handlers
+ * annotated with {@link QueryBudget} are checked against their budget: over-budget requests
+ * are logged as warnings, or fail with {@link QueryBudgetExceededException} in {@code fail}
+ * mode, which is what the test configuration uses to catch N+1 regressions.
+ *
+ * <p>In {@code fail} mode the body of a budgeted handler is buffered until the budget has
+ * been checked, so an over-budget request fails with an error status rather than after a
+ * 200 has already been sent.
+ */
+@Slf4j
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public enum Mode { WARN, FAIL }
+
+    private final Mode mode;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(@Value("${sql.query-budget.mode:warn}") String mode,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // A budgeted handler that went async has its buffered body copied out by the async dispatch
+        return mode != Mode.FAIL;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            copyBufferedBody(response);
+            return;
+        }
+        HttpServletResponse target = mode == Mode.FAIL ? new BudgetedResponse(request, response) : response;
+        SqlStatementStats.begin();
+        SqlStatementStats stats;
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            stats = SqlStatementStats.end();
+        }
+        // Streaming responses keep querying on another thread; only the dispatch is counted
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        if (stats == null) {
+            copyBufferedBody(target);
+            return;
+        }
+
+        HandlerMethod handler = handler(request);
+        String handlerName = handler == null ? "none"
+                : handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        if (meterRegistry != null) {
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .description("SQL statements executed per request")
+                    .tag("handler", handlerName)
+                    .register(meterRegistry)
+                    .record(stats.statements());
+        }
+
+        QueryBudget budget = budget(request);
+        if (budget == null || stats.statements() <= budget.value()) {
+            if (log.isDebugEnabled()) {
+                log.debug("{} {} [{}]: {} SQL statements, {} ms in database", request.getMethod(),
+                        request.getRequestURI(), handlerName, stats.statements(), String.format("%.2f", stats.millis()));
+            }
+            copyBufferedBody(target);
+            return;
+        }
+        String message = String.format("%s %s [%s] executed %d SQL statements (%.2f ms), over its budget of %d",
+                request.getMethod(), request.getRequestURI(), handlerName, stats.statements(), stats.millis(),
+                budget.value());
+        if (mode == Mode.FAIL) {
+            // Nothing has been sent yet; drop the handler's status, headers and body
+            response.reset();
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private static HandlerMethod handler(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+                instanceof HandlerMethod method ? method : null;
+    }
+
+    private static QueryBudget budget(HttpServletRequest request) {
+        HandlerMethod handler = handler(request);
+        return handler == null ? null : handler.getMethodAnnotation(QueryBudget.class);
+    }
+
+    private static void copyBufferedBody(HttpServletResponse response) throws IOException {
+        BudgetedResponse budgeted = WebUtils.getNativeResponse(response, BudgetedResponse.class);
+        if (budgeted != null && budgeted.buffer != null) {
+            budgeted.buffer.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Holds back the body of a budgeted handler until its budget has been checked. Whether to
+     * buffer is decided on first access to the body, once the handler is known; every other
+     * response, streaming ones included, is written straight through.
+     */
+    private static final class BudgetedResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private boolean decided;
+        private ContentCachingResponseWrapper buffer;
+
+        BudgetedResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        private HttpServletResponse body() {
+            if (!decided) {
+                decided = true;
+                if (budget(request) != null) {
+                    buffer = new ContentCachingResponseWrapper((HttpServletResponse) getResponse());
+                }
+            }
+            return buffer != null ? buffer : (HttpServletResponse) getResponse();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return body().getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return body().getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            body().flushBuffer();
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            body().setContentLength(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            body().setContentLengthLong(len);
+        }
+
+        @Override
+        public void setBufferSize(int size) {
+            body().setBufferSize(size);
+        }
+
+        @Override
+        public int getBufferSize() {
+            return body().getBufferSize();
+        }
+
+        @Override
+        public void resetBuffer() {
+            body().resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            body().reset();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            body().sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            body().sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            body().sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.examly.springapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write split, enabled with {@code datasource.replicas.enabled}. Replaces the
+ * auto-configured pool with a {@link LazyConnectionDataSourceProxy} over the primary whose
+ * read-only connections come from {@link ReadReplicas}: a read-only transaction
+ * ({@code @Transactional(readOnly = true)}, including Spring Data's own finders) marks its
+ * connection read-only before the first statement, which is when the proxy picks the pool.
+ * Both pools are configured from {@code spring.datasource.hikari.*}; the replicas use the
+ * primary's credentials unless {@code datasource.replicas.username}/{@code password} are set.
+ *
+ * <p>Needs {@code spring.jpa.open-in-view=false}: with an EntityManager held open for the
+ * whole request, the first transaction's connection would serve every later one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    ReadReplicas readReplicas(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                              @Value("${datasource.replicas.urls}") List<String> urls,
+                              @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                              @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                              @Value("${datasource.replicas.pool.max-size:10}") int poolSize,
+                              @Value("${datasource.replicas.max-lag-ms:5000}") long maxLagMillis,
+                              @Value("${datasource.replicas.lag-check-interval-ms:1000}") long checkIntervalMillis) {
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("datasource.replicas.enabled requires spring.jpa.open-in-view=false");
+        }
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource pool = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            pool.setReadOnly(true);
+            pool.setPoolName("replica-" + (replicaPools.size() + 1));
+            replicaPools.add(pool);
+        }
+
+        ReadReplicas readReplicas = new ReadReplicas(primary, replicaPools, Duration.ofMillis(maxLagMillis),
+                Duration.ofMillis(checkIntervalMillis), meterRegistry);
+        readReplicas.createHeartbeatTable();
+        return readReplicas;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReadReplicas readReplicas) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(readReplicas.primary());
+        dataSource.setReadOnlyDataSource(readReplicas.readOnlyDataSource());
+        return dataSource;
+    }
+}
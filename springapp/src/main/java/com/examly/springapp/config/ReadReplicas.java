@@ -0,0 +1,236 @@
+package com.examly.springapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The primary connection pool and a pool per read replica, set up by {@link ReadReplicaConfig}.
+ * {@link #readOnlyDataSource()} is what read-only transactions connect through: it picks the
+ * eligible replicas in turn and falls back to the primary when none is eligible or a replica
+ * refuses a connection.
+ *
+ * <p>Lag is measured with a heartbeat row: {@link #checkLag()} writes the current time to
+ * {@code replica_heartbeat} on the primary and reads it back from every replica, so a
+ * replica's lag is how old the newest heartbeat it has applied is. A replica is eligible
+ * while that is at most {@code max-lag}; until its first successful check it is not.
+ * Every pool reports {@code hikaricp.*} metrics tagged with its pool name ({@code primary},
+ * {@code replica-1}, ...), and {@code datasource.replica.lag} and
+ * {@code datasource.routing.reads} show the lag and where read-only connections went.
+ */
+@Slf4j
+public class ReadReplicas implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> PINNED = ThreadLocal.withInitial(() -> 0);
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private final DataSource readOnlyDataSource = new AbstractDataSource() {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readConnection(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return readConnection(pool -> pool.getConnection(username, password));
+        }
+    };
+
+    public ReadReplicas(HikariDataSource primary, List<HikariDataSource> replicaPools, Duration maxLag,
+                        Duration checkInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.meterRegistry = meterRegistry;
+        // The primary is instrumented by Spring Boot, which reaches it by unwrapping the DataSource bean
+        for (HikariDataSource pool : replicaPools) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            Replica replica = new Replica(pool);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMillis / 1000.0)
+                    .description("Age of the newest heartbeat applied on the replica; NaN while unreachable")
+                    .baseUnit("seconds")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+            replicas.add(replica);
+        }
+    }
+
+    /**
+     * Runs {@code work} with every read-only connection it opens taken from the primary.
+     * For reads that must see every commit so far, such as rebuilding an in-memory
+     * snapshot that incremental updates are applied to.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        PINNED.set(PINNED.get() + 1);
+        try {
+            return work.get();
+        } finally {
+            PINNED.set(PINNED.get() - 1);
+        }
+    }
+
+    public static void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public DataSource readOnlyDataSource() {
+        return readOnlyDataSource;
+    }
+
+    /**
+     * How stale a read-only read may be: a replica lagging up to {@code max-lag} stays in
+     * use until the next check notices.
+     */
+    public Duration stalenessBound() {
+        return maxLag.plus(checkInterval);
+    }
+
+    /**
+     * Runs {@code action} once more after {@link #stalenessBound()}. Caches that drop entries
+     * on commit repeat the drop this way, since a read served by a lagging replica in between
+     * may have put the old state back.
+     */
+    public void repeatAfterStalenessBound(Runnable action) {
+        CompletableFuture.runAsync(action,
+                CompletableFuture.delayedExecutor(stalenessBound().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    /** Opens a connection from one pool; lets both {@code getConnection} variants share the routing. */
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource pool) throws SQLException;
+    }
+
+    private Connection readConnection(ConnectionOpener opener) throws SQLException {
+        if (PINNED.get() > 0) {
+            count("primary", "pinned");
+            return opener.open(primary);
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.eligible) {
+                continue;
+            }
+            try {
+                Connection connection = opener.open(replica.pool);
+                count(replica.pool.getPoolName(), "replica");
+                return connection;
+            } catch (SQLFeatureNotSupportedException ex) {
+                throw ex; // The pool lacks the call (Hikari and per-call credentials), the replica is fine
+            } catch (SQLException ex) {
+                log.warn("Replica {} refused a connection, excluding it until the next lag check: {}",
+                        replica.pool.getPoolName(), ex.getMessage());
+                replica.eligible = false;
+            }
+        }
+        count("primary", "fallback");
+        return opener.open(primary);
+    }
+
+    private void count(String target, String reason) {
+        Counter.builder("datasource.routing.reads")
+                .description("Read-only connections by the pool that served them")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /** Writes a heartbeat on the primary and re-evaluates every replica against it. */
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        long now = System.currentTimeMillis();
+        try (Connection connection = primary.getConnection()) {
+            writeHeartbeat(connection, now);
+        } catch (SQLException ex) {
+            log.warn("Could not write the replica heartbeat: {}", ex.getMessage());
+        }
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 PreparedStatement select = connection.prepareStatement(
+                         "select beat_at from replica_heartbeat where id = 1");
+                 ResultSet rs = select.executeQuery()) {
+                replica.lagMillis = rs.next() ? Math.max(0, now - rs.getLong(1)) : Double.NaN;
+            } catch (SQLException ex) {
+                replica.lagMillis = Double.NaN;
+            }
+            boolean eligible = replica.lagMillis <= maxLag.toMillis();
+            if (eligible != replica.eligible) {
+                log.info("Replica {} is now {} (lag {} ms)", replica.pool.getPoolName(),
+                        eligible ? "in use" : "skipped", replica.lagMillis);
+            }
+            replica.eligible = eligible;
+        }
+    }
+
+    void createHeartbeatTable() {
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists replica_heartbeat (id int not null primary key, beat_at bigint not null)");
+        } catch (SQLException ex) {
+            log.warn("Could not create the replica heartbeat table; replicas stay unused: {}", ex.getMessage());
+        }
+    }
+
+    private static void writeHeartbeat(Connection connection, long now) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("update replica_heartbeat set beat_at = ? where id = 1")) {
+            update.setLong(1, now);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into replica_heartbeat (id, beat_at) values (1, ?)")) {
+            insert.setLong(1, now);
+            insert.executeUpdate();
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private volatile double lagMillis = Double.NaN;
+        private volatile boolean eligible;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
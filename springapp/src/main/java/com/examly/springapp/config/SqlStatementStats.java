@@ -0,0 +1,44 @@
+package com.examly.springapp.config;
+
+/**
+ * Per-thread tally of executed SQL statements and the time spent executing them. Counting
+ * only happens between {@link #begin()} and {@link #end()}, so statements issued outside
+ * a request (scheduled jobs, startup) cost one thread-local read.
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private SqlStatementStats() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new SqlStatementStats());
+    }
+
+    /** Stops counting on this thread and returns the tally, or {@code null} if none was started. */
+    public static SqlStatementStats end() {
+        SqlStatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static void record(long elapsedNanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public double millis() {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.examly.springapp.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual-thread executors when they are enabled ({@code spring.threads.virtual.enabled})
+ * and the runtime has them (Java 21+). They are looked up reflectively because the project
+ * compiles for Java 17; otherwise callers get a fixed pool of daemon platform threads.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return virtualThreadFactory("probe-") != null;
+    }
+
+    /**
+     * A thread-per-task executor of virtual threads named {@code namePrefix0, 1, ...} when
+     * {@code virtual} is set and supported, else a fixed pool of {@code platformThreads}.
+     */
+    public static ExecutorService newExecutor(String namePrefix, int platformThreads, boolean virtual) {
+        ThreadFactory factory = virtual ? virtualThreadFactory(namePrefix) : null;
+        if (factory != null) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, factory);
+            } catch (ReflectiveOperationException ex) {
+                // fall through to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads, platformThreadFactory(namePrefix));
+    }
+
+    /** Virtual threads named {@code namePrefix0, 1, ...}, or {@code null} before Java 21. */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            Method factory = builderType.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    public static ThreadFactory platformThreadFactory(String namePrefix) {
+        AtomicInteger next = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + next.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
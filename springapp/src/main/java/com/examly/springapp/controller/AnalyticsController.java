@@ -0,0 +1,45 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.config.Bulkhead;
+import com.examly.springapp.dto.SalesReport;
+import com.examly.springapp.service.SalesRollups;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Bulkhead(Bulkhead.ADMIN_REPORTS)
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final SalesRollups salesRollups;
+
+    // Served from the in-memory rollups; defaults to the last 30 days by day
+    @GetMapping("/sales")
+    public SalesReport getSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_RANGE_DAYS - 1) : from;
+        return salesRollups.report(start, end, SalesRollups.GroupBy.parse(groupBy));
+    }
+
+    // Recovery: recomputes the rollups from the orders table
+    @PostMapping("/sales/rebuild")
+    public Map<String, Long> rebuildSales() {
+        return Map.of("orders", salesRollups.rebuild());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
+}
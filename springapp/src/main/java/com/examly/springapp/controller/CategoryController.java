@@ -1,11 +1,15 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.config.Bulkhead;
+import com.examly.springapp.dto.CategoryNode;
 import com.examly.springapp.model.Category;
 import com.examly.springapp.service.CategoryService;
+import com.examly.springapp.service.VersionStamps;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,18 +19,31 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final VersionStamps versionStamps;
 
     @PostMapping
     public ResponseEntity<Category> createCategory(@Valid @RequestBody Category category) {
         return ResponseEntity.ok(categoryService.createCategory(category));
     }
 
+    // A matching If-None-Match is answered with 304 without querying
     @GetMapping
-    public List<Category> getAllCategories() {
+    @Bulkhead(Bulkhead.CATALOG_READS)
+    public List<Category> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(versionStamps.etag(VersionStamps.Table.CATEGORIES))) {
+            return null;
+        }
         return categoryService.getAllCategories();
     }
 
+    @GetMapping("/tree")
+    @Bulkhead(Bulkhead.CATALOG_READS)
+    public List<CategoryNode> getCategoryTree() {
+        return categoryService.getCategoryTree();
+    }
+
     @GetMapping("/{id}")
+    @Bulkhead(Bulkhead.CATALOG_READS)
     public ResponseEntity<Category> getCategory(@PathVariable Long id) {
         return categoryService.getCategoryById(id)
                 .map(ResponseEntity::ok)
@@ -0,0 +1,40 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.FulfilmentDeadLetter;
+import com.examly.springapp.repository.FulfilmentDeadLetterRepository;
+import com.examly.springapp.service.FulfilmentPipeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/fulfilment")
+@RequiredArgsConstructor
+public class FulfilmentController {
+
+    private final FulfilmentPipeline fulfilmentPipeline;
+    private final FulfilmentDeadLetterRepository deadLetterRepository;
+
+    @GetMapping("/dead-letters")
+    public List<FulfilmentDeadLetter> getDeadLetters(@RequestParam(required = false) Long orderId) {
+        if (orderId != null) {
+            return deadLetterRepository.findByOrderIdOrderByIdAsc(orderId);
+        }
+        return deadLetterRepository.findAll();
+    }
+
+    // Puts the event back in front of the stage that gave up on it
+    @PostMapping("/dead-letters/{id}/replay")
+    public ResponseEntity<?> replayDeadLetter(@PathVariable Long id) {
+        return deadLetterRepository.findById(id)
+                .<ResponseEntity<?>>map(deadLetter -> fulfilmentPipeline.replay(deadLetter)
+                        ? ResponseEntity.accepted().build()
+                        : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(Map.of("message", "Fulfilment queue is full")))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,11 +1,15 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.BulkInventoryResult;
+import com.examly.springapp.dto.InventoryAdjustment;
 import com.examly.springapp.model.Inventory;
 import com.examly.springapp.service.InventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -30,6 +34,11 @@ public class InventoryController {
         return inventoryService.getInventoryByProductId(productId);
     }
 
+    @PutMapping("/bulk")
+    public BulkInventoryResult bulkUpdateInventory(@RequestBody List<InventoryAdjustment> adjustments) {
+        return inventoryService.bulkUpdate(adjustments);
+    }
+
     @PutMapping("/{productId}")
     public Inventory updateInventory(@PathVariable Long productId, @RequestParam int quantity) {
         return inventoryService.updateInventory(productId, quantity);
@@ -39,4 +48,9 @@ public class InventoryController {
     public void deleteInventory(@PathVariable Long id) {
         inventoryService.deleteInventory(id);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
 }
@@ -1,14 +1,22 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.config.Bulkhead;
+import com.examly.springapp.config.QueryBudget;
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.OrderSummary;
 import com.examly.springapp.model.Order;
+import com.examly.springapp.service.OrderExportService;
 import com.examly.springapp.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -18,20 +26,47 @@ import java.util.Optional;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    @QueryBudget(3)
+    public CursorPage<OrderSummary> getAllOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return orderService.getAllOrders(after, limit);
     }
 
+    @GetMapping("/export")
+    @Bulkhead(Bulkhead.ADMIN_REPORTS)
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        StreamingResponseBody body = out -> orderExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Tagged by the order's own lastModified, read on its own so a matching If-None-Match
+    // is answered with 304 without loading the order graph
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+    @QueryBudget(2)
+    public ResponseEntity<Order> getOrderById(@PathVariable Long id, WebRequest request) {
+        Optional<String> etag = orderService.getOrderEtag(id);
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
         Optional<Order> order = orderService.getOrderById(id);
         return order.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
+    @Bulkhead(Bulkhead.ORDER_WRITES)
     public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> orderPayload) {
         try {
             Order created = orderService.createOrder(orderPayload);
@@ -43,6 +78,7 @@ public class OrderController {
     }
 
     @PutMapping("/{id}")
+    @Bulkhead(Bulkhead.ORDER_WRITES)
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @Valid @RequestBody Order order) {
         Order updated = orderService.updateOrder(id, order);
         if (updated == null) {
@@ -52,6 +88,7 @@ public class OrderController {
     }
 
     @DeleteMapping("/{id}")
+    @Bulkhead(Bulkhead.ORDER_WRITES)
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         boolean deleted = orderService.deleteOrder(id);
         if (deleted) {
@@ -61,6 +98,7 @@ public class OrderController {
     }
 
     @PatchMapping("/{id}/status")
+    @Bulkhead(Bulkhead.ORDER_WRITES)
     public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestBody StatusUpdateRequest statusUpdate) {
         try {
             Order updated = orderService.updateOrderStatus(id, statusUpdate.getStatus());
@@ -75,6 +113,12 @@ public class OrderController {
         }
     }
 
+    // Exception handler for invalid request parameters not caught by the individual handlers
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
+
     public static class StatusUpdateRequest {
         private String status;
 
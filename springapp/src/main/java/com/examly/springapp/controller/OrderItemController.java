@@ -2,12 +2,12 @@
 
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.CursorPage;
 import com.examly.springapp.model.OrderItem;
 import com.examly.springapp.service.OrderItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -18,8 +18,10 @@ public class OrderItemController {
     private OrderItemService orderItemService;
 
     @GetMapping
-    public List<OrderItem> getAllOrderItems() {
-        return orderItemService.getAllOrderItems();
+    public CursorPage<OrderItem> getAllOrderItems(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return orderItemService.getAllOrderItems(after, limit);
     }
 
     @GetMapping("/{id}")
@@ -2,18 +2,33 @@
 
 package com.examly.springapp.controller;
 
+import com.examly.springapp.config.Bulkhead;
+import com.examly.springapp.config.QueryBudget;
+import com.examly.springapp.dto.ProductSummary;
 import com.examly.springapp.model.Product;
+import com.examly.springapp.service.ProductImportService;
 import com.examly.springapp.service.ProductService;
+import com.examly.springapp.service.VersionStamps;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
@@ -21,6 +36,8 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final VersionStamps versionStamps;
 
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
@@ -28,27 +45,68 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    // Page and count queries over the listing columns only. A matching If-None-Match is
+    // answered with 304 before either; the tag is taken before the query
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts(
+    @QueryBudget(2)
+    @Bulkhead(Bulkhead.CATALOG_READS)
+    public ResponseEntity<Page<ProductSummary>> getAllProducts(
             @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories,
             @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice) {
+            @RequestParam(required = false) Double maxPrice,
+            @PageableDefault(size = 20, sort = "productId", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
 
-        List<Product> filteredProducts = productService.getFilteredProducts(category, minPrice, maxPrice);
+        // Categories too: includeSubcategories resolves against the category tree
+        if (request.checkNotModified(versionStamps.etag(VersionStamps.Table.PRODUCTS, VersionStamps.Table.CATEGORIES))) {
+            return null;
+        }
+        Page<ProductSummary> filteredProducts = productService.getFilteredProducts(
+                category, includeSubcategories, minPrice, maxPrice, pageable);
         return ResponseEntity.ok(filteredProducts);
     }
 
+    // Streams the body straight into the importer; CSV needs a header row naming Product properties
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ProductImportService.ImportReport importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        return productImportService.importProducts(ProductImportService.Format.forContentType(contentType), body);
+    }
+
+    @GetMapping("/search")
+    @QueryBudget(2)
+    @Bulkhead(Bulkhead.CATALOG_READS)
+    public List<Product> searchProducts(@RequestParam String q,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        return productService.searchProducts(q, Math.max(1, Math.min(limit, 100)));
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return productService.getCacheStats();
+    }
+
+    // Tagged by the product's lastModified; send the tag back in If-Match when updating
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    @Bulkhead(Bulkhead.CATALOG_READS)
+    public ResponseEntity<Product> getProduct(@PathVariable Long id, WebRequest request) {
+        Optional<Product> product = productService.getProductById(id);
+        if (product.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(VersionStamps.etag(product.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok(product.get());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         product.setProductId(id);
-        return ResponseEntity.ok(productService.updateProduct(product));
+        Product updated = productService.updateProduct(product, ifMatch);
+        return ResponseEntity.ok().eTag(VersionStamps.etag(updated)).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -57,6 +115,11 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleStaleVersion(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("message", ex.getMessage()));
+    }
+
     // Exception handler for validation failures
     @ExceptionHandler({ConstraintViolationException.class, MethodArgumentNotValidException.class})
     public ResponseEntity<?> handleValidationExceptions(Exception ex) {
@@ -0,0 +1,77 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.dto.CategorySummary;
+import com.examly.springapp.dto.ProductSummary;
+import com.examly.springapp.repository.ReactiveCatalogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Reactive variant of the catalog reads. Handlers return a {@link Flux} straight from
+ * R2DBC, so the servlet thread is released as soon as the query is issued. As NDJSON
+ * (the default) rows are written one by one, each requested only after the previous one
+ * was written, which propagates the client's pace to the database cursor; as JSON the
+ * rows are collected into one array, so a JSON product listing is capped at the maximum
+ * page size of the paged endpoints.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveCatalogController {
+
+    private static final int MAX_LIMIT = 100_000;
+
+    private final ReactiveCatalogRepository reactiveCatalogRepository;
+    private final int maxJsonLimit;
+
+    public ReactiveCatalogController(ReactiveCatalogRepository reactiveCatalogRepository,
+                                     @Value("${spring.data.web.pageable.max-page-size:2000}") int maxJsonLimit) {
+        this.reactiveCatalogRepository = reactiveCatalogRepository;
+        this.maxJsonLimit = maxJsonLimit;
+    }
+
+    @GetMapping(value = "/products", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<ProductSummary> getProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        int maxLimit = rendersJson(accept) ? maxJsonLimit : MAX_LIMIT;
+        return reactiveCatalogRepository.findProducts(category, minPrice, maxPrice,
+                Math.max(1, Math.min(limit, maxLimit)));
+    }
+
+    @GetMapping(value = "/categories", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<CategorySummary> getCategories() {
+        return reactiveCatalogRepository.findCategories();
+    }
+
+    // Mirrors content negotiation over the produces list above: NDJSON unless JSON is preferred
+    private static boolean rendersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType type : acceptable) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return false;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
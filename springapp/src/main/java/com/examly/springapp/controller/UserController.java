@@ -4,11 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.examly.springapp.config.QueryBudget;
+import com.examly.springapp.dto.CursorPage;
 import com.examly.springapp.model.User;
 import com.examly.springapp.service.UserService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -22,8 +22,11 @@ public class UserController {
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    @QueryBudget(1)
+    public CursorPage<User> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return userService.getAllUsers(after, limit);
     }
 
     @GetMapping("/{id}")
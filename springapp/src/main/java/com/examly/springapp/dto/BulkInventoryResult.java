@@ -0,0 +1,7 @@
+package com.examly.springapp.dto;
+
+import java.util.List;
+
+/** Outcome of a bulk inventory update; {@code notFound} lists productIds with no inventory row. */
+public record BulkInventoryResult(int requested, int updated, List<Long> notFound) {
+}
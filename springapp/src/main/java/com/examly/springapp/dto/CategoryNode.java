@@ -0,0 +1,9 @@
+package com.examly.springapp.dto;
+
+import java.util.List;
+
+/**
+ * A category and its subcategories, as served by {@code GET /api/categories/tree}.
+ */
+public record CategoryNode(Long id, String name, Integer sortOrder, List<CategoryNode> children) {
+}
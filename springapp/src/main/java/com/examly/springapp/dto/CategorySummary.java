@@ -0,0 +1,6 @@
+package com.examly.springapp.dto;
+
+/** The listing columns of a category, with its parent as an id rather than a nested category. */
+public record CategorySummary(Long categoryId, String categoryName, Long parentCategoryId, String description,
+                              String imageUrl, Integer sortOrder, boolean active) {
+}
@@ -0,0 +1,16 @@
+package com.examly.springapp.dto;
+
+/**
+ * One line of a bulk inventory update: either an absolute {@code quantity} or a signed
+ * {@code delta} for {@code productId}, never both.
+ */
+public record InventoryAdjustment(Long productId, Integer quantity, Integer delta) {
+
+    public boolean isAbsolute() {
+        return quantity != null;
+    }
+
+    public int amount() {
+        return isAbsolute() ? quantity : delta;
+    }
+}
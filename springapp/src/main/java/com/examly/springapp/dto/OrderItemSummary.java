@@ -0,0 +1,8 @@
+package com.examly.springapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/** The listing columns of an order line; {@code orderId} only groups lines under their order. */
+public record OrderItemSummary(@JsonIgnore Long orderId, Long id, Long productId, Integer quantity,
+                               Double priceAtPurchase) {
+}
@@ -0,0 +1,19 @@
+package com.examly.springapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The listing columns of an order and its lines, read without loading entities. Rows are
+ * selected with the short constructor and their lines appended afterwards.
+ */
+public record OrderSummary(Long id, String customerName, String customerEmail, String shippingAddress,
+                           Double totalAmount, String status, LocalDateTime orderDate,
+                           List<OrderItemSummary> orderItems) {
+
+    public OrderSummary(Long id, String customerName, String customerEmail, String shippingAddress,
+                        Double totalAmount, String status, LocalDateTime orderDate) {
+        this(id, customerName, customerEmail, shippingAddress, totalAmount, status, orderDate, new ArrayList<>());
+    }
+}
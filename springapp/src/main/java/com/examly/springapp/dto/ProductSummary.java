@@ -0,0 +1,6 @@
+package com.examly.springapp.dto;
+
+/** The listing columns of a product, read without loading the entity. */
+public record ProductSummary(Long id, String name, String description, Double price, String category,
+                             Integer stockQuantity, String sku, String imageUrl) {
+}
@@ -0,0 +1,15 @@
+package com.examly.springapp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales between {@code from} and {@code to} (both inclusive), one group per day, order
+ * status or product category. For categories, {@code orders} counts the orders with at
+ * least one line in the category and {@code revenue} sums those lines only.
+ */
+public record SalesReport(LocalDate from, LocalDate to, String groupBy, List<Group> groups) {
+
+    public record Group(String key, long orders, long units, double revenue) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** A fulfilment event a stage gave up on, kept so it can be inspected and replayed. */
+@Entity
+@Table(indexes = @Index(name = "idx_dead_letter_order_id", columnList = "orderId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FulfilmentDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String stage;
+    private String eventType;
+    private Long orderId;
+    private String fromStatus;
+    private String toStatus;
+    private int attempts;
+
+    @Column(length = 1000)
+    private String error;
+
+    private LocalDateTime failedAt;
+}
@@ -3,6 +3,7 @@ package com.examly.springapp.model;
 import jakarta.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_inventory_product_id", columnNames = "productId"))
 public class Inventory {
 
     @Id
@@ -0,0 +1,28 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Issued once per order when it ships; the billing details are copied so later edits do not change it. */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_invoice_order_id", columnNames = "orderId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Invoice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String number;
+    private Long orderId;
+    private String customerName;
+    private String customerEmail;
+    private String billingAddress;
+    private Double totalAmount;
+    private LocalDateTime issuedAt;
+}
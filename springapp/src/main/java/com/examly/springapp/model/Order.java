@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,8 +18,11 @@ import java.util.List;
 @Builder
 public class Order {
 
+    // Pooled ids (one sequence round trip per 50 orders) keep inserts batchable; IDENTITY disables JDBC batching
+    // IdSequenceInitializer moves the sequence past ids from before it existed
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @JsonProperty("id")
@@ -37,11 +41,25 @@ public class Order {
     private Double totalAmount;
     private String status;
     private LocalDateTime orderDate;
+
+    // Backs the order's ETag (see VersionStamps); moved by every write to the order or its lines
+    @JsonIgnore
+    private LocalDateTime lastModified;
+
+    @JsonIgnore // Claimed once by the fulfilment pipeline when a cancelled order's stock goes back
+    private boolean stockReleased;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
+    @BatchSize(size = 100) // Paths without a fetch plan initialize items for up to 100 orders at once
     private List<OrderItem> orderItems;
 
+    // Line changes do not dirty the order row, so update paths call this explicitly
+    @PrePersist
+    public void touch() {
+        lastModified = Product.modificationTime();
+    }
+
     public void setOrderItems(List<OrderItem> orderItems) {
         this.orderItems = orderItems;
         if (orderItems != null) {
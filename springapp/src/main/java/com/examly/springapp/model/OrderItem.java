@@ -7,14 +7,17 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_order_item_stock_pending", columnList = "stockPending"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class OrderItem {
 
+    // Pooled like Order's ids, so an order's items cascade in as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +32,9 @@ public class OrderItem {
 
     private Double priceAtPurchase;
 
+    @JsonIgnore // Set while this item's stock decrement is still held in memory (write-behind)
+    private boolean stockPending;
+
     @JsonProperty("productId") // Controls JSON property name for serialization/deserialization of productId
     public Long getProductId() {
         if (product != null) {
@@ -5,19 +5,28 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
+@BatchSize(size = 100) // Uninitialized proxies (e.g. OrderItem.product) load 100 per statement
+@Table(indexes = {
+        @Index(name = "idx_product_category_price", columnList = "category, price"),
+        @Index(name = "idx_product_price", columnList = "price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
 
+    // Pooled like Order's ids, so bulk imports insert in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long productId;
 
     @JsonProperty("id") // Expose as "id" in JSON, mapped from productId
@@ -63,11 +72,26 @@ public class Product {
     @JsonIgnore
     private LocalDateTime createdDate = LocalDateTime.now();
 
+    // Backs the product's ETag (see VersionStamps); also set by the JDBC stock updates
     @JsonIgnore
     private LocalDateTime lastModified = LocalDateTime.now();
 
-    @ManyToOne
+    // Lazy: no read path needs the owner, so loading a product no longer joins users
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "createdBy")
     @JsonIgnore // Hide User details from JSON output for Product
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User createdBy;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = modificationTime();
+    }
+
+    /** Current time at the precision the column stores, so a cached copy tags like a reloaded one. */
+    public static LocalDateTime modificationTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -1,8 +1,23 @@
 package com.examly.springapp.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.examly.springapp.model.Category;
 
+import java.util.List;
+
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    // Flat parent links for building the category tree in one query, without the eager parent join
+    interface CategoryLink {
+        Long getCategoryId();
+        Long getParentId();
+        String getCategoryName();
+        Integer getSortOrder();
+    }
+
+    @Query("select c.categoryId as categoryId, p.categoryId as parentId, c.categoryName as categoryName, "
+            + "c.sortOrder as sortOrder from Category c left join c.parentCategory p")
+    List<CategoryLink> findAllLinks();
 }
@@ -0,0 +1,10 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.FulfilmentDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface FulfilmentDeadLetterRepository extends JpaRepository<FulfilmentDeadLetter, Long> {
+    List<FulfilmentDeadLetter> findByOrderIdOrderByIdAsc(Long orderId);
+}
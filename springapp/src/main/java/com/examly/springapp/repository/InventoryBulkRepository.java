@@ -0,0 +1,27 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.InventoryAdjustment;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set-based inventory writes for {@link InventoryRepository}, executed as batched UPDATEs
+ * keyed on the unique {@code product_id} index instead of a find and save per product.
+ */
+public interface InventoryBulkRepository {
+
+    /**
+     * Which lines of a bulk update did not apply: {@code notFound} productIds have no
+     * inventory row, {@code insufficient} ones exist but a delta would take them below zero.
+     */
+    record Outcome(Set<Long> notFound, Set<Long> insufficient) {
+    }
+
+    /**
+     * Applies every adjustment in JDBC batches of 1000 rows, in the caller's transaction. A
+     * delta only applies if the quantity stays non-negative; the caller decides whether a
+     * non-empty {@code insufficient} set rolls the batch back.
+     */
+    Outcome applyAdjustments(List<InventoryAdjustment> adjustments);
+}
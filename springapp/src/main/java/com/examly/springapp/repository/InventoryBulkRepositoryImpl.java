@@ -0,0 +1,76 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.InventoryAdjustment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class InventoryBulkRepositoryImpl implements InventoryBulkRepository {
+
+    static final int BATCH_SIZE = 1000;
+
+    // One statement text for both kinds, so absolute and delta lines share a batch and keep their order.
+    // The guard sees earlier lines of the batch, so repeated deltas for one product add up before it applies
+    private static final String ADJUST_SQL =
+            "update inventory set quantity = case when ? = 1 then ? else quantity + ? end "
+                    + "where product_id = ? and (? = 1 or quantity + ? >= 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Outcome applyAdjustments(List<InventoryAdjustment> adjustments) {
+        if (adjustments.isEmpty()) {
+            return new Outcome(Set.of(), Set.of());
+        }
+        // Ascending productId (stable, so repeated ids keep request order) to take row locks
+        // in the same order as concurrent bulk updates and stock decrements
+        List<InventoryAdjustment> rows = new ArrayList<>(adjustments);
+        rows.sort(Comparator.comparing(InventoryAdjustment::productId));
+        int[][] counts = jdbcTemplate.batchUpdate(ADJUST_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setInt(1, row.isAbsolute() ? 1 : 0);
+            ps.setInt(2, row.amount());
+            ps.setInt(3, row.amount());
+            ps.setLong(4, row.productId());
+            ps.setInt(5, row.isAbsolute() ? 1 : 0);
+            ps.setInt(6, row.amount());
+        });
+
+        Set<Long> unmatched = new LinkedHashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Without a per-row count the guard cannot be checked (e.g. rewriteBatchedStatements)
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    throw new IllegalStateException("JDBC driver did not report per-row update counts");
+                }
+                if (count == 0) {
+                    unmatched.add(rows.get(index).productId());
+                }
+                index++;
+            }
+        }
+        if (unmatched.isEmpty()) {
+            return new Outcome(Set.of(), Set.of());
+        }
+        // A zero count is either a missing row or a failed guard; the rows that exist failed the guard
+        Set<Long> insufficient = new LinkedHashSet<>();
+        List<Long> ids = new ArrayList<>(unmatched);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            insufficient.addAll(jdbcTemplate.queryForList(
+                    "select product_id from inventory where product_id in ("
+                            + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                    Long.class, chunk.toArray()));
+        }
+        unmatched.removeAll(insufficient);
+        return new Outcome(unmatched, insufficient);
+    }
+}
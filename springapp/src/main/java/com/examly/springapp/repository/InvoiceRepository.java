@@ -0,0 +1,10 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Invoice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+    Optional<Invoice> findByOrderId(Long orderId);
+}
@@ -1,8 +1,13 @@
 package com.examly.springapp.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.examly.springapp.model.OrderItem;
 
+import java.util.List;
+
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    // Keyset pagination: seeks on the primary key, so every page costs the same
+    List<OrderItem> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
 }
@@ -1,8 +1,79 @@
 package com.examly.springapp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.examly.springapp.dto.OrderItemSummary;
+import com.examly.springapp.dto.OrderSummary;
 import com.examly.springapp.model.Order;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // Keyset pagination over the listing columns only: seeks on the primary key, so every page
+    // costs the same, and no entity is managed
+    @Query("select new com.examly.springapp.dto.OrderSummary(o.id, o.customerName, o.customerEmail, "
+            + "o.shippingAddress, o.totalAmount, o.status, o.orderDate) from Order o where o.id > :after order by o.id")
+    List<OrderSummary> findSummariesAfter(Long after, Limit limit);
+
+    // Lines of the listed orders; the product id is read from the foreign key without a join
+    @Query("select new com.examly.springapp.dto.OrderItemSummary(i.order.id, i.id, i.product.productId, i.quantity, "
+            + "i.priceAtPurchase) from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemSummary> findItemSummariesByOrderIdIn(Collection<Long> orderIds);
+
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsById(Long id);
+
+    /** What an order's ETag is computed from, read without loading the order or its lines. */
+    interface Version {
+        Long getId();
+        LocalDateTime getLastModified();
+    }
+
+    Optional<Version> findVersionById(Long id);
+
+    // For writes that change an order's lines without going through the order entity
+    @Modifying
+    @Query("update Order o set o.lastModified = :time where o.id in :ids")
+    int touchAll(Collection<Long> ids, LocalDateTime time);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Order> streamAllByOrderByIdAsc();
+
+    /** One order line (or one row for an order without lines) with what the sales rollups need. */
+    interface SalesRow {
+        Long getOrderId();
+        LocalDateTime getOrderDate();
+        String getStatus();
+        Double getTotalAmount();
+        String getCategory();
+        Integer getQuantity();
+        Double getPriceAtPurchase();
+    }
+
+    // Rows of one order are adjacent, so the rollups can be rebuilt one order at a time
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select o.id as orderId, o.orderDate as orderDate, o.status as status, o.totalAmount as totalAmount, "
+            + "p.category as category, i.quantity as quantity, i.priceAtPurchase as priceAtPurchase "
+            + "from Order o left join o.orderItems i left join i.product p order by o.id")
+    Stream<SalesRow> streamSalesRows();
 }
@@ -1,8 +1,42 @@
 package com.examly.springapp.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.examly.springapp.model.Product;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductStockRepository, ProductSummaryRepository {
+
+    /** The searchable text of a product, without loading the entity or its owner. */
+    interface SearchDocument {
+        Long getProductId();
+        String getName();
+        String getDescription();
+        String getSku();
+        String getCategory();
+    }
+
+    // Forward-only cursor for building the search index; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p.productId as productId, p.name as name, p.description as description, p.sku as sku, "
+            + "p.category as category from Product p")
+    Stream<SearchDocument> streamSearchDocuments();
+
+    // Holds the row until commit, for check-then-write updates such as If-Match
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Product> findLockedByProductId(Long productId);
 }
@@ -0,0 +1,50 @@
+package com.examly.springapp.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.examly.springapp.model.Product;
+
+import java.util.Collection;
+
+/**
+ * Composable filters for {@link ProductRepository}. Each one returns {@code null}
+ * when its argument is absent, which Spring Data treats as "no restriction", so the
+ * generated WHERE clause only contains the predicates that were actually requested
+ * and stays eligible for the (category, price) index.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> hasCategory(Collection<String> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return null;
+        }
+        if (categories.size() == 1) {
+            String category = categories.iterator().next();
+            return (root, query, cb) -> cb.equal(root.get("category"), category);
+        }
+        return (root, query, cb) -> root.get("category").in(categories);
+    }
+
+    public static Specification<Product> priceAtLeast(Double minPrice) {
+        if (minPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(Double maxPrice) {
+        if (maxPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> filter(Collection<String> categories, Double minPrice, Double maxPrice) {
+        return Specification.where(hasCategory(categories))
+                .and(priceAtLeast(minPrice))
+                .and(priceAtMost(maxPrice));
+    }
+}
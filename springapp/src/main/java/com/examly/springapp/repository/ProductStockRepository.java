@@ -0,0 +1,21 @@
+package com.examly.springapp.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Atomic stock operations for {@link ProductRepository}, executed as conditional UPDATEs
+ * so concurrent orders cannot both pass a read-then-write stock check.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Decrements stock for every product in {@code quantities} in one JDBC batch. Each
+     * row is only updated while it still holds enough stock. Returns the ids that could
+     * not be decremented; the caller is expected to roll back when it is not empty.
+     */
+    Set<Long> decrementStock(Map<Long, Integer> quantities);
+
+    /** Adds {@code quantities} back to stock, in one JDBC batch, e.g. for a cancelled order. */
+    void incrementStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,72 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "update product set stock_quantity = stock_quantity - ?, last_modified = ? where product_id = ? and stock_quantity >= ?";
+    private static final String INCREMENT_SQL =
+            "update product set stock_quantity = stock_quantity + ?, last_modified = ? where product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<Long> decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return Set.of();
+        }
+        // Ascending id order so concurrent multi-product orders take row locks in the same order
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp modified = Timestamp.valueOf(Product.modificationTime());
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setTimestamp(2, modified);
+            ps.setLong(3, row.getKey());
+            ps.setInt(4, row.getValue());
+        });
+
+        Set<Long> rejected = new HashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Without a per-row count the guard cannot be checked (e.g. rewriteBatchedStatements)
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    throw new IllegalStateException("JDBC driver did not report per-row update counts");
+                }
+                if (count == 0) {
+                    rejected.add(rows.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // Same lock order as decrementStock
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp modified = Timestamp.valueOf(Product.modificationTime());
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setTimestamp(2, modified);
+            ps.setLong(3, row.getKey());
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.ProductSummary;
+import com.examly.springapp.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Listing reads for {@link ProductRepository} that select only the {@link ProductSummary}
+ * columns, so each row becomes one record instead of a managed entity.
+ */
+public interface ProductSummaryRepository {
+
+    /** Like {@code findAll(spec, pageable)}; the count query only runs when the page does not tell the total. */
+    Page<ProductSummary> findSummaries(Specification<Product> spec, Pageable pageable);
+}
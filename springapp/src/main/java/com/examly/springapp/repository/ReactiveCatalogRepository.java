@@ -0,0 +1,109 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.CategorySummary;
+import com.examly.springapp.dto.ProductSummary;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking catalog reads over R2DBC against the same product and category tables the
+ * JPA entities map. Rows are emitted as the driver produces them and only as fast as the
+ * subscriber requests them, so a slow client holds neither a thread nor more rows than
+ * it has asked for.
+ *
+ * <p>The R2DBC connection pool is owned here rather than exposed as a
+ * {@code ConnectionFactory} bean: Spring Boot backs off its JDBC {@code DataSource} as
+ * soon as one exists, and JPA keeps using JDBC for everything else.
+ */
+@Repository
+public class ReactiveCatalogRepository implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogRepository(@Value("${catalog.reactive.url}") String url,
+                                     @Value("${catalog.reactive.username:${spring.datasource.username:}}") String username,
+                                     @Value("${catalog.reactive.password:${spring.datasource.password:}}") String password,
+                                     @Value("${catalog.reactive.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("catalog-reactive")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(10))
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /** Products in id order, optionally filtered by exact category and price range. */
+    public Flux<ProductSummary> findProducts(String category, Double minPrice, Double maxPrice, int limit) {
+        StringBuilder sql = new StringBuilder("select product_id, name, description, price, category, stock_quantity, "
+                + "sku, image_url from product where 1 = 1");
+        if (category != null) {
+            sql.append(" and category = :category");
+        }
+        if (minPrice != null) {
+            sql.append(" and price >= :minPrice");
+        }
+        if (maxPrice != null) {
+            sql.append(" and price <= :maxPrice");
+        }
+        sql.append(" order by product_id limit :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("limit", limit);
+        if (category != null) {
+            spec = spec.bind("category", category);
+        }
+        if (minPrice != null) {
+            spec = spec.bind("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            spec = spec.bind("maxPrice", maxPrice);
+        }
+        return spec.map(ReactiveCatalogRepository::toProduct).all();
+    }
+
+    public Flux<CategorySummary> findCategories() {
+        return databaseClient.sql("select category_id, category_name, parent_category_id, description, image_url, "
+                        + "sort_order, is_active from category order by category_id")
+                .map(ReactiveCatalogRepository::toCategory)
+                .all();
+    }
+
+    private static ProductSummary toProduct(Readable row) {
+        return new ProductSummary(row.get("product_id", Long.class), row.get("name", String.class),
+                row.get("description", String.class), row.get("price", Double.class),
+                row.get("category", String.class), row.get("stock_quantity", Integer.class),
+                row.get("sku", String.class), row.get("image_url", String.class));
+    }
+
+    private static CategorySummary toCategory(Readable row) {
+        Boolean active = row.get("is_active", Boolean.class);
+        return new CategorySummary(row.get("category_id", Long.class), row.get("category_name", String.class),
+                row.get("parent_category_id", Long.class), row.get("description", String.class),
+                row.get("image_url", String.class), row.get("sort_order", Integer.class),
+                Boolean.TRUE.equals(active));
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
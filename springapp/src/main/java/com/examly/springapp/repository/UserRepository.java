@@ -1,12 +1,16 @@
 package com.examly.springapp.repository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.examly.springapp.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
-}
 
+    // Keyset pagination: seeks on the primary key, so every page costs the same
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(Long after, Limit limit);
+}
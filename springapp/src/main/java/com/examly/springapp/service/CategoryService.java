@@ -1,5 +1,6 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CategoryNode;
 import com.examly.springapp.model.Category;
 import com.examly.springapp.repository.CategoryRepository;
 import jakarta.validation.ConstraintViolation;
@@ -18,13 +19,16 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final Validator validator;
+    private final CategoryTree categoryTree;
+    private final ProductCache productCache;
+    private final VersionStamps versionStamps;
 
     public Category createCategory(Category category) {
         Set<ConstraintViolation<Category>> violations = validator.validate(category);
         if (!violations.isEmpty()) {
             throw new ConstraintViolationException(violations);
         }
-        return categoryRepository.save(category);
+        return treeChanged(categoryRepository.save(category));
     }
 
     public List<Category> getAllCategories() {
@@ -36,10 +40,23 @@ public class CategoryService {
     }
 
     public Category updateCategory(Category category) {
-        return categoryRepository.save(category);
+        return treeChanged(categoryRepository.save(category));
     }
 
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        treeChanged(null);
+    }
+
+    public List<CategoryNode> getCategoryTree() {
+        return categoryTree.roots();
+    }
+
+    // Swaps in a fresh tree snapshot; subtree-filtered product pages may now resolve differently
+    private Category treeChanged(Category saved) {
+        categoryTree.rebuild();
+        productCache.invalidate(List.of(), null);
+        versionStamps.bump(VersionStamps.Table.CATEGORIES);
+        return saved;
     }
 }
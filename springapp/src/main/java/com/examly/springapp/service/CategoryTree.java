@@ -0,0 +1,181 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.ReadReplicas;
+import com.examly.springapp.dto.CategoryNode;
+import com.examly.springapp.repository.CategoryRepository;
+import com.examly.springapp.repository.CategoryRepository.CategoryLink;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory snapshot of the category hierarchy. Categories are numbered in
+ * DFS pre-order (an Euler tour), so every subtree occupies the contiguous range
+ * {@code [enter, exit)}: "is A under B" is two integer comparisons and the names of a
+ * subtree are a slice of one array. Writers call {@link #rebuild()}, which builds a new
+ * snapshot and swaps it in; readers never lock.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+
+    // Read from the primary: a writer rebuilds right after its change and must see it
+    public synchronized void rebuild() {
+        snapshot = Snapshot.build(ReadReplicas.onPrimary(categoryRepository::findAllLinks));
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    public List<CategoryNode> roots() {
+        return current().roots;
+    }
+
+    /** True when {@code categoryId} is {@code ancestorId} itself or lies anywhere beneath it. */
+    public boolean isDescendant(Long categoryId, Long ancestorId) {
+        Snapshot s = current();
+        Integer node = s.indexById.get(categoryId);
+        Integer ancestor = s.indexById.get(ancestorId);
+        if (node == null || ancestor == null) {
+            return false;
+        }
+        return s.enter[ancestor] <= s.enter[node] && s.enter[node] < s.exit[ancestor];
+    }
+
+    /**
+     * Names of the named category and all of its subcategories. Unknown names resolve to
+     * themselves, so filtering on a category that is not in the tree still works.
+     */
+    public List<String> subtreeNames(String categoryName) {
+        Snapshot s = current();
+        Integer node = s.indexByName.get(categoryName);
+        if (node == null) {
+            return List.of(categoryName);
+        }
+        return s.namesInOrder.subList(s.enter[node], s.exit[node]);
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, Integer> indexById;
+        private final Map<String, Integer> indexByName;
+        private final int[] enter;
+        private final int[] exit;
+        private final List<String> namesInOrder;
+        private final List<CategoryNode> roots;
+
+        private Snapshot(Map<Long, Integer> indexById, Map<String, Integer> indexByName, int[] enter, int[] exit,
+                         List<String> namesInOrder, List<CategoryNode> roots) {
+            this.indexById = indexById;
+            this.indexByName = indexByName;
+            this.enter = enter;
+            this.exit = exit;
+            this.namesInOrder = namesInOrder;
+            this.roots = roots;
+        }
+
+        static Snapshot build(List<CategoryLink> links) {
+            int n = links.size();
+            Comparator<CategoryLink> order = Comparator
+                    .comparing((CategoryLink l) -> l.getSortOrder() == null ? 0 : l.getSortOrder())
+                    .thenComparing(CategoryLink::getCategoryName, Comparator.nullsLast(Comparator.naturalOrder()));
+            List<CategoryLink> sorted = new ArrayList<>(links);
+            sorted.sort(order);
+
+            Map<Long, Integer> indexById = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                indexById.put(sorted.get(i).getCategoryId(), i);
+            }
+            List<List<Integer>> children = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                children.add(new ArrayList<>());
+            }
+            List<Integer> rootIndexes = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Integer parent = indexById.get(sorted.get(i).getParentId());
+                if (parent == null) {
+                    rootIndexes.add(i);
+                } else {
+                    children.get(parent).add(i);
+                }
+            }
+
+            int[] enter = new int[n];
+            int[] exit = new int[n];
+            boolean[] visited = new boolean[n];
+            String[] names = new String[n];
+            int[] clock = {0};
+            List<CategoryNode> roots = new ArrayList<>();
+            for (int root : rootIndexes) {
+                roots.add(visit(root, sorted, children, enter, exit, visited, names, clock));
+            }
+            // A parent cycle has no root; cut it at its first member so every category is reachable
+            for (int i = 0; i < n; i++) {
+                if (!visited[i]) {
+                    roots.add(visit(i, sorted, children, enter, exit, visited, names, clock));
+                }
+            }
+
+            Map<String, Integer> indexByName = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                indexByName.put(sorted.get(i).getCategoryName(), i);
+            }
+            return new Snapshot(indexById, indexByName, enter, exit,
+                    Collections.unmodifiableList(Arrays.asList(names)), List.copyOf(roots));
+        }
+
+        // Iterative pre-order walk, so deep hierarchies cannot overflow the stack
+        private static CategoryNode visit(int start, List<CategoryLink> links, List<List<Integer>> children,
+                                          int[] enter, int[] exit, boolean[] visited, String[] names, int[] clock) {
+            Deque<int[]> stack = new ArrayDeque<>();
+            Map<Integer, List<CategoryNode>> childNodes = new HashMap<>();
+            visited[start] = true;
+            enter[start] = clock[0];
+            names[clock[0]++] = links.get(start).getCategoryName();
+            stack.push(new int[]{start, 0});
+            CategoryNode result = null;
+            while (!stack.isEmpty()) {
+                int[] frame = stack.peek();
+                List<Integer> kids = children.get(frame[0]);
+                if (frame[1] < kids.size()) {
+                    int child = kids.get(frame[1]++);
+                    if (visited[child]) {
+                        continue;
+                    }
+                    visited[child] = true;
+                    enter[child] = clock[0];
+                    names[clock[0]++] = links.get(child).getCategoryName();
+                    stack.push(new int[]{child, 0});
+                    continue;
+                }
+                stack.pop();
+                int node = frame[0];
+                exit[node] = clock[0];
+                CategoryLink link = links.get(node);
+                List<CategoryNode> nodeChildren = childNodes.remove(node);
+                CategoryNode categoryNode = new CategoryNode(link.getCategoryId(), link.getCategoryName(),
+                        link.getSortOrder(), nodeChildren == null ? List.of() : List.copyOf(nodeChildren));
+                if (stack.isEmpty()) {
+                    result = categoryNode;
+                } else {
+                    childNodes.computeIfAbsent(stack.peek()[0], k -> new ArrayList<>()).add(categoryNode);
+                }
+            }
+            return result;
+        }
+    }
+}
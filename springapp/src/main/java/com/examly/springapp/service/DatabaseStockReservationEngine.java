@@ -0,0 +1,30 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default engine: every reservation is a conditional UPDATE against the product row.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stock.reservation.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseStockReservationEngine implements StockReservationEngine {
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public Result reserve(Map<Long, Integer> quantities) {
+        return new Result(productRepository.decrementStock(quantities), Set.of());
+    }
+
+    @Override
+    public void stockChanged(Long productId, int delta) {
+        // The database row is the only copy of the stock level
+    }
+}
@@ -0,0 +1,22 @@
+package com.examly.springapp.service;
+
+/**
+ * Published by {@link OrderService} inside the order transaction and handed to the
+ * {@link FulfilmentPipeline} only after that transaction commits.
+ */
+public record FulfilmentEvent(Type type, Long orderId, String fromStatus, String toStatus) {
+
+    public enum Type { PLACED, STATUS_CHANGED }
+
+    public static FulfilmentEvent placed(Long orderId) {
+        return new FulfilmentEvent(Type.PLACED, orderId, null, "PENDING");
+    }
+
+    public static FulfilmentEvent statusChanged(Long orderId, String fromStatus, String toStatus) {
+        return new FulfilmentEvent(Type.STATUS_CHANGED, orderId, fromStatus, toStatus);
+    }
+
+    public boolean isTransitionTo(String status) {
+        return type == Type.STATUS_CHANGED && status.equals(toStatus) && !status.equals(fromStatus);
+    }
+}
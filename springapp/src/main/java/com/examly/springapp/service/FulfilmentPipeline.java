@@ -0,0 +1,287 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.VirtualThreads;
+import com.examly.springapp.model.FulfilmentDeadLetter;
+import com.examly.springapp.repository.FulfilmentDeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs order fulfilment off the request thread. Committed {@link FulfilmentEvent}s enter
+ * a bounded queue in front of the first {@link FulfilmentStage}; each stage takes events
+ * from its queue onto its own executor (virtual threads when
+ * {@code spring.threads.virtual.enabled} is set on Java 21+), at most
+ * {@code fulfilment.stage-concurrency} at a time, and hands them on to the next stage's
+ * queue.
+ *
+ * <p>Backpressure: a stage blocks on a full downstream queue while still holding its
+ * concurrency permit, so a slow stage throttles the ones before it. Only the entry point
+ * never blocks for long: if the first queue stays full for
+ * {@code fulfilment.enqueue-timeout-ms}, the event is dead-lettered instead of slowing the
+ * committing request. A failing stage is retried with exponential backoff up to
+ * {@code fulfilment.max-attempts} times, then the event is written to the dead-letter
+ * table and does not reach later stages. Events still queued at shutdown are
+ * dead-lettered too, so {@link #replay} can pick them up after a restart. Dead letters are
+ * written in a transaction of their own: a rejected submit runs in the committing
+ * request's after-commit callback, where a joined transaction would never be flushed.
+ *
+ * <p>Per stage it records {@code fulfilment.stage.events} (by outcome),
+ * {@code fulfilment.stage.lag} (queued until started), {@code fulfilment.stage.duration}
+ * and the {@code fulfilment.stage.queue.size} gauge.
+ */
+@Slf4j
+@Service
+public class FulfilmentPipeline implements DisposableBean {
+
+    private final FulfilmentDeadLetterRepository deadLetterRepository;
+    private final TransactionTemplate deadLetterTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long enqueueTimeoutMillis;
+    private final boolean virtualThreads;
+    private final List<StageRunner> runners = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    public FulfilmentPipeline(List<FulfilmentStage> stages,
+                              FulfilmentDeadLetterRepository deadLetterRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${fulfilment.queue-capacity:1000}") int queueCapacity,
+                              @Value("${fulfilment.stage-concurrency:8}") int stageConcurrency,
+                              @Value("${fulfilment.max-attempts:3}") int maxAttempts,
+                              @Value("${fulfilment.retry-backoff-ms:200}") long retryBackoffMillis,
+                              @Value("${fulfilment.enqueue-timeout-ms:50}") long enqueueTimeoutMillis,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.deadLetterTransaction = new TransactionTemplate(transactionManager);
+        this.deadLetterTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.virtualThreads = virtualThreads;
+        for (FulfilmentStage stage : stages) {
+            runners.add(new StageRunner(stage, queueCapacity, stageConcurrency));
+        }
+        for (int i = 0; i < runners.size(); i++) {
+            runners.get(i).next = i + 1 < runners.size() ? runners.get(i + 1) : null;
+            runners.get(i).start();
+        }
+    }
+
+    // Fires after the publishing transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvent(FulfilmentEvent event) {
+        submit(event);
+    }
+
+    /** Queues an event for the first stage; returns {@code false} if it was dead-lettered instead. */
+    public boolean submit(FulfilmentEvent event) {
+        if (runners.isEmpty()) {
+            return true;
+        }
+        return submitTo(runners.get(0), event);
+    }
+
+    /** Removes a dead letter and re-queues its event at the stage that gave up on it. */
+    public boolean replay(FulfilmentDeadLetter deadLetter) {
+        FulfilmentEvent event = new FulfilmentEvent(FulfilmentEvent.Type.valueOf(deadLetter.getEventType()),
+                deadLetter.getOrderId(), deadLetter.getFromStatus(), deadLetter.getToStatus());
+        for (StageRunner runner : runners) {
+            if (runner.stage.name().equals(deadLetter.getStage())) {
+                deadLetterRepository.delete(deadLetter);
+                return submitTo(runner, event);
+            }
+        }
+        throw new IllegalArgumentException("Unknown fulfilment stage: " + deadLetter.getStage());
+    }
+
+    private boolean submitTo(StageRunner runner, FulfilmentEvent event) {
+        boolean queued = false;
+        try {
+            queued = running && runner.queue.offer(new Envelope(event, System.nanoTime()),
+                    enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queued) {
+            runner.count("rejected");
+            deadLetter(runner.stage, event, 0, "Queue full");
+        }
+        return queued;
+    }
+
+    private void deadLetter(FulfilmentStage stage, FulfilmentEvent event, int attempts, String error) {
+        log.warn("Fulfilment stage {} gave up on {} for order {} after {} attempt(s): {}",
+                stage.name(), event.type(), event.orderId(), attempts, error);
+        try {
+            deadLetterTransaction.executeWithoutResult(status -> deadLetterRepository.save(FulfilmentDeadLetter.builder()
+                    .stage(stage.name())
+                    .eventType(event.type().name())
+                    .orderId(event.orderId())
+                    .fromStatus(event.fromStatus())
+                    .toStatus(event.toStatus())
+                    .attempts(attempts)
+                    .error(error == null ? null : error.substring(0, Math.min(error.length(), 1000)))
+                    .failedAt(LocalDateTime.now())
+                    .build()));
+        } catch (RuntimeException ex) {
+            log.error("Could not record dead letter for order {} at stage {}", event.orderId(), stage.name(), ex);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (StageRunner runner : runners) {
+            runner.dispatcher.interrupt();
+        }
+        for (StageRunner runner : runners) {
+            runner.executor.shutdown();
+            runner.executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        for (StageRunner runner : runners) {
+            Envelope envelope;
+            while ((envelope = runner.queue.poll()) != null) {
+                deadLetter(runner.stage, envelope.event(), 0, "Not processed before shutdown");
+            }
+        }
+    }
+
+    private record Envelope(FulfilmentEvent event, long queuedAtNanos) {
+    }
+
+    private final class StageRunner {
+        private final FulfilmentStage stage;
+        private final BlockingQueue<Envelope> queue;
+        private final Semaphore permits;
+        private final ExecutorService executor;
+        private final Thread dispatcher;
+        private final Timer lag;
+        private final Timer duration;
+        private StageRunner next;
+
+        StageRunner(FulfilmentStage stage, int queueCapacity, int concurrency) {
+            this.stage = stage;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.permits = new Semaphore(concurrency);
+            this.executor = VirtualThreads.newExecutor("fulfilment-" + stage.name() + "-", concurrency, virtualThreads);
+            this.dispatcher = VirtualThreads.platformThreadFactory("fulfilment-" + stage.name() + "-dispatcher-")
+                    .newThread(this::dispatch);
+            this.lag = Timer.builder("fulfilment.stage.lag")
+                    .description("Time fulfilment events wait in front of a stage")
+                    .tag("stage", stage.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.duration = Timer.builder("fulfilment.stage.duration")
+                    .description("Time a fulfilment stage spends on one event, including retries")
+                    .tag("stage", stage.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("fulfilment.stage.queue.size", queue, BlockingQueue::size)
+                    .description("Fulfilment events waiting in front of a stage")
+                    .tag("stage", stage.name())
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            dispatcher.start();
+        }
+
+        void count(String outcome) {
+            Counter.builder("fulfilment.stage.events")
+                    .description("Fulfilment events by stage and outcome")
+                    .tag("stage", stage.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        private void dispatch() {
+            while (running) {
+                try {
+                    permits.acquire();
+                    Envelope envelope;
+                    try {
+                        envelope = queue.take();
+                    } catch (InterruptedException ex) {
+                        permits.release();
+                        throw ex;
+                    }
+                    executor.execute(() -> {
+                        try {
+                            process(envelope);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (InterruptedException ex) {
+                    return;
+                } catch (RejectedExecutionException ex) {
+                    permits.release();
+                    return;
+                }
+            }
+        }
+
+        private void process(Envelope envelope) {
+            lag.record(System.nanoTime() - envelope.queuedAtNanos(), TimeUnit.NANOSECONDS);
+            FulfilmentEvent event = envelope.event();
+            if (stage.appliesTo(event) && !duration.record(() -> handleWithRetries(event))) {
+                return;
+            }
+            if (next != null) {
+                try {
+                    // Blocks while the next stage is saturated; that is the backpressure
+                    next.queue.put(new Envelope(event, System.nanoTime()));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    deadLetter(next.stage, event, 0, "Not processed before shutdown");
+                }
+            }
+        }
+
+        // Returns whether the event may continue to the next stage
+        private boolean handleWithRetries(FulfilmentEvent event) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    stage.handle(event);
+                    count("processed");
+                    return true;
+                } catch (Exception ex) {
+                    if (attempt >= maxAttempts || !running) {
+                        count("dead_lettered");
+                        deadLetter(stage, event, attempt, ex.toString());
+                        return false;
+                    }
+                    count("retried");
+                    try {
+                        Thread.sleep(retryBackoffMillis << (attempt - 1));
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        count("dead_lettered");
+                        deadLetter(stage, event, attempt, ex.toString());
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+}
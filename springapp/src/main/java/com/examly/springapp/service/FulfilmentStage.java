@@ -0,0 +1,18 @@
+package com.examly.springapp.service;
+
+/**
+ * One step of the {@link FulfilmentPipeline}. Every event passes through the stages in
+ * {@link org.springframework.core.annotation.Order} order; a stage skips events it does
+ * not apply to. {@link #handle} may be retried, so it must be idempotent.
+ */
+public interface FulfilmentStage {
+
+    /** Short, stable name used in thread names, metric tags and dead letters. */
+    String name();
+
+    default boolean appliesTo(FulfilmentEvent event) {
+        return true;
+    }
+
+    void handle(FulfilmentEvent event) throws Exception;
+}
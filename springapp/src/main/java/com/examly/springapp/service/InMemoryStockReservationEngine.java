@@ -0,0 +1,201 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.ProductRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Flash-sale engine. Stock for tracked ("hot") products lives in an {@link AtomicLongArray}
+ * and is granted with a lock-free CAS, so concurrent orders for the same SKU no longer
+ * queue on its database row. Products that are not tracked fall through to the
+ * conditional UPDATE used by {@link DatabaseStockReservationEngine}.
+ *
+ * <p>Granted units are written behind. The order items of a deferred reservation are
+ * saved with {@code stockPending = true}, committing together with the order, and
+ * {@link #flush()} periodically folds pending items into {@code product.stock_quantity}.
+ * The pending items are therefore the durable journal: on restart, {@link #track(Long)}
+ * folds whatever a crash left unflushed before loading the counter from the database.
+ */
+@Service
+@ConditionalOnProperty(name = "stock.reservation.engine", havingValue = "memory")
+public class InMemoryStockReservationEngine implements StockReservationEngine, SmartInitializingSingleton {
+
+    // One counter per cache line (8 longs) so hot SKUs do not false-share
+    private static final int STRIDE = 8;
+    private static final int FLUSH_CHUNK = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Long> configuredProductIds;
+
+    private final AtomicLongArray counters;
+    private final int capacity;
+    private final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+
+    public InMemoryStockReservationEngine(ProductRepository productRepository,
+                                          ProductCache productCache,
+                                          JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${stock.reservation.hot-product-ids:}") List<Long> configuredProductIds,
+                                          @Value("${stock.reservation.capacity:1024}") int capacity) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.configuredProductIds = configuredProductIds;
+        this.capacity = capacity;
+        this.counters = new AtomicLongArray(capacity * STRIDE);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Runs before the web server accepts requests, so no order races the recovery
+        for (Long productId : configuredProductIds) {
+            track(productId);
+        }
+    }
+
+    /**
+     * Starts serving a product from memory. Pending items are folded first so the counter
+     * starts from the true committed stock. Register products before their sale opens:
+     * orders already running against the database path are not seen by the counter.
+     */
+    public synchronized void track(Long productId) {
+        if (slots.containsKey(productId)) {
+            return;
+        }
+        if (slots.size() >= capacity) {
+            throw new IllegalStateException("Stock reservation capacity exhausted");
+        }
+        flush();
+        Integer stock = jdbcTemplate.queryForObject(
+                "select stock_quantity from product where product_id = ?", Integer.class, productId);
+        int slot = slots.size();
+        counters.set(slot * STRIDE, stock == null ? 0 : stock);
+        slots.put(productId, slot);
+    }
+
+    public boolean isTracked(Long productId) {
+        return slots.containsKey(productId);
+    }
+
+    /** Units currently available in memory, or -1 when the product is not tracked. */
+    public long available(Long productId) {
+        Integer slot = slots.get(productId);
+        return slot == null ? -1 : counters.get(slot * STRIDE);
+    }
+
+    @Override
+    public Result reserve(Map<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock reservations require an active transaction");
+        }
+        Map<Long, Integer> databaseQuantities = new HashMap<>();
+        Map<Integer, Integer> granted = new HashMap<>();
+        Set<Long> rejected = new HashSet<>();
+        Set<Long> deferred = new HashSet<>();
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Integer slot = slots.get(entry.getKey());
+            if (slot == null) {
+                databaseQuantities.put(entry.getKey(), entry.getValue());
+            } else if (tryTake(slot * STRIDE, entry.getValue())) {
+                granted.put(slot * STRIDE, entry.getValue());
+                deferred.add(entry.getKey());
+            } else {
+                rejected.add(entry.getKey());
+            }
+        }
+
+        if (!granted.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        granted.forEach(counters::addAndGet);
+                    }
+                }
+            });
+        }
+        if (rejected.isEmpty() && !databaseQuantities.isEmpty()) {
+            rejected.addAll(productRepository.decrementStock(databaseQuantities));
+        }
+        return new Result(rejected, deferred);
+    }
+
+    private boolean tryTake(int index, int quantity) {
+        while (true) {
+            long current = counters.get(index);
+            if (current < quantity) {
+                return false;
+            }
+            if (counters.compareAndSet(index, current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void stockChanged(Long productId, int delta) {
+        Integer slot = slots.get(productId);
+        if (slot != null && delta != 0) {
+            counters.addAndGet(slot * STRIDE, delta);
+        }
+    }
+
+    /**
+     * Folds committed pending order items into product stock, one chunk per transaction.
+     * Items are locked and cleared by id, so an item is never folded twice.
+     */
+    @Scheduled(fixedDelayString = "${stock.reservation.flush-interval-ms:500}")
+    public void flush() {
+        int folded;
+        do {
+            Integer count = transactionTemplate.execute(status -> flushChunk());
+            folded = count == null ? 0 : count;
+        } while (folded == FLUSH_CHUNK);
+    }
+
+    private int flushChunk() {
+        List<long[]> items = jdbcTemplate.query(
+                "select id, product_id, quantity from order_item where stock_pending = true order by id limit ? for update",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                FLUSH_CHUNK);
+        if (items.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> totals = new TreeMap<>();
+        for (long[] item : items) {
+            totals.merge(item[1], item[2], Long::sum);
+        }
+        List<Map.Entry<Long, Long>> decrements = new ArrayList<>(totals.entrySet());
+        Timestamp modified = Timestamp.valueOf(Product.modificationTime());
+        jdbcTemplate.batchUpdate("update product set stock_quantity = stock_quantity - ?, last_modified = ? where product_id = ?",
+                decrements, decrements.size(), (ps, row) -> {
+                    ps.setLong(1, row.getValue());
+                    ps.setTimestamp(2, modified);
+                    ps.setLong(3, row.getKey());
+                });
+        jdbcTemplate.batchUpdate("update order_item set stock_pending = false where id = ?",
+                items, items.size(), (ps, item) -> ps.setLong(1, item[0]));
+        productCache.invalidate(totals.keySet(), null);
+        return items.size();
+    }
+}
@@ -1,11 +1,17 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.BulkInventoryResult;
+import com.examly.springapp.dto.InventoryAdjustment;
 import com.examly.springapp.model.Inventory;
+import com.examly.springapp.repository.InventoryBulkRepository;
 import com.examly.springapp.repository.InventoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class InventoryService {
@@ -17,14 +23,17 @@ public class InventoryService {
         return inventoryRepository.save(inventory);
     }
 
+    @Transactional(readOnly = true)
     public List<Inventory> getAllInventories() {
         return inventoryRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Inventory getInventoryByProductId(Long productId) {
         return inventoryRepository.findByProductId(productId);
     }
 
+    @Transactional
     public Inventory updateInventory(Long productId, int quantity) {
         Inventory inventory = inventoryRepository.findByProductId(productId);
         if (inventory != null) {
@@ -34,6 +43,36 @@ public class InventoryService {
         return null;
     }
 
+    /**
+     * Applies many absolute or delta adjustments atomically: either every existing row is
+     * updated or, on any failure, none is. Unknown productIds are reported, not rejected;
+     * a delta that would take a quantity below zero rejects the whole batch.
+     */
+    @Transactional
+    public BulkInventoryResult bulkUpdate(List<InventoryAdjustment> adjustments) {
+        for (InventoryAdjustment adjustment : adjustments) {
+            if (adjustment == null || adjustment.productId() == null) {
+                throw new IllegalArgumentException("productId is required");
+            }
+            if ((adjustment.quantity() == null) == (adjustment.delta() == null)) {
+                throw new IllegalArgumentException("Exactly one of quantity or delta is required for product "
+                        + adjustment.productId());
+            }
+            if (adjustment.quantity() != null && adjustment.quantity() < 0) {
+                throw new IllegalArgumentException("Quantity must be non-negative for product "
+                        + adjustment.productId());
+            }
+        }
+        InventoryBulkRepository.Outcome outcome = inventoryRepository.applyAdjustments(adjustments);
+        if (!outcome.insufficient().isEmpty()) {
+            // Thrown inside the transaction, so the lines already applied roll back
+            throw new IllegalArgumentException("Insufficient inventory for products " + outcome.insufficient());
+        }
+        Set<Long> notFound = outcome.notFound();
+        int updated = (int) adjustments.stream().filter(a -> !notFound.contains(a.productId())).count();
+        return new BulkInventoryResult(adjustments.size(), updated, new ArrayList<>(notFound));
+    }
+
     public void deleteInventory(Long id) {
         inventoryRepository.deleteById(id);
     }
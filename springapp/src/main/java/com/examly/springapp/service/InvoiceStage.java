@@ -0,0 +1,60 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Invoice;
+import com.examly.springapp.repository.InvoiceRepository;
+import com.examly.springapp.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Issues the invoice of an order once it ships. The unique {@code orderId} on invoices
+ * makes a retried or concurrent attempt fail instead of issuing a second one; the retry
+ * then finds the existing invoice and stops. Runs before the notification stage, so the
+ * customer is told about a shipment only once its invoice exists.
+ */
+@Slf4j
+@Component
+@Order(15)
+public class InvoiceStage implements FulfilmentStage {
+
+    private final InvoiceRepository invoiceRepository;
+    private final OrderRepository orderRepository;
+
+    public InvoiceStage(InvoiceRepository invoiceRepository, OrderRepository orderRepository) {
+        this.invoiceRepository = invoiceRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @Override
+    public String name() {
+        return "invoice";
+    }
+
+    @Override
+    public boolean appliesTo(FulfilmentEvent event) {
+        return event.isTransitionTo("SHIPPED");
+    }
+
+    @Override
+    public void handle(FulfilmentEvent event) {
+        if (invoiceRepository.findByOrderId(event.orderId()).isPresent()) {
+            return;
+        }
+        // A deleted order gets no invoice
+        orderRepository.findById(event.orderId()).ifPresent(order -> {
+            Invoice invoice = invoiceRepository.save(Invoice.builder()
+                    .number(String.format("INV-%08d", order.getId()))
+                    .orderId(order.getId())
+                    .customerName(order.getCustomerName())
+                    .customerEmail(order.getCustomerEmail())
+                    .billingAddress(order.getShippingAddress())
+                    .totalAmount(order.getTotalAmount())
+                    .issuedAt(LocalDateTime.now())
+                    .build());
+            log.info("Issued invoice {} for order {}", invoice.getNumber(), order.getId());
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Order;
+import com.examly.springapp.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams every order to an output stream one row at a time. Rows come from a
+ * forward-only cursor and are detached as soon as they are written, so neither the
+ * result set nor the persistence context grows with the size of the table.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                throw new IllegalArgumentException("Unsupported export format");
+            }
+        }
+    }
+
+    private static final int FLUSH_EVERY = 500;
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("customerName")
+            .addColumn("customerEmail")
+            .addColumn("shippingAddress")
+            .addColumn("totalAmount")
+            .addColumn("status")
+            .addColumn("orderDate")
+            .setUseHeader(true)
+            .build();
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CsvFactory csvFactory = new CsvFactory();
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    public void export(Format format, OutputStream out) {
+        // Called from the async response thread, so the transaction is opened here
+        // rather than through @Transactional on the request thread
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            try (JsonGenerator gen = createGenerator(format, out);
+                 Stream<Order> orders = orderRepository.streamAllByOrderByIdAsc()) {
+                Iterator<Order> it = orders.iterator();
+                int written = 0;
+                while (it.hasNext()) {
+                    Order order = it.next();
+                    writeRow(gen, format, order);
+                    entityManager.detach(order);
+                    if (++written % FLUSH_EVERY == 0) {
+                        gen.flush();
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private JsonGenerator createGenerator(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            JsonGenerator gen = csvFactory.createGenerator(out);
+            gen.setSchema(CSV_SCHEMA);
+            return gen;
+        }
+        return jsonFactory.createGenerator(out);
+    }
+
+    private void writeRow(JsonGenerator gen, Format format, Order order) throws IOException {
+        gen.writeStartObject();
+        writeNumber(gen, "id", order.getId());
+        gen.writeStringField("customerName", order.getCustomerName());
+        gen.writeStringField("customerEmail", order.getCustomerEmail());
+        gen.writeStringField("shippingAddress", order.getShippingAddress());
+        writeNumber(gen, "totalAmount", order.getTotalAmount());
+        gen.writeStringField("status", order.getStatus());
+        gen.writeStringField("orderDate", order.getOrderDate() == null ? null : order.getOrderDate().toString());
+        gen.writeEndObject();
+        if (format == Format.NDJSON) {
+            gen.writeRaw('\n');
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, Number value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof Long l) {
+            gen.writeNumber(l);
+        } else {
+            gen.writeNumber(value.doubleValue());
+        }
+    }
+}
@@ -2,13 +2,21 @@
 
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.model.Order;
 import com.examly.springapp.model.OrderItem;
+import com.examly.springapp.model.Product;
 import com.examly.springapp.repository.OrderItemRepository;
+import com.examly.springapp.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OrderItemService {
@@ -16,36 +24,66 @@ public class OrderItemService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
-    public List<OrderItem> getAllOrderItems() {
-        return orderItemRepository.findAll();
+    // Items are part of their order's representation, so their writes move the order's ETag
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderItem> getAllOrderItems(Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<OrderItem> rows = orderItemRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, OrderItem::getId);
     }
 
     public Optional<OrderItem> getOrderItemById(Long id) {
         return orderItemRepository.findById(id);
     }
 
+    @Transactional
     public OrderItem addOrderItem(OrderItem orderItem) {
-        return orderItemRepository.save(orderItem);
+        OrderItem saved = orderItemRepository.save(orderItem);
+        touch(saved.getOrder());
+        return saved;
     }
 
+    @Transactional
     public OrderItem updateOrderItem(Long id, OrderItem updatedOrderItem) {
         Optional<OrderItem> optionalItem = orderItemRepository.findById(id);
         if (optionalItem.isPresent()) {
             OrderItem item = optionalItem.get();
+            Order previousOrder = item.getOrder();
             item.setProduct(updatedOrderItem.getProduct());
             item.setQuantity(updatedOrderItem.getQuantity());
             item.setPriceAtPurchase(updatedOrderItem.getPriceAtPurchase());
             item.setOrder(updatedOrderItem.getOrder());
-            return orderItemRepository.save(item);
+            OrderItem saved = orderItemRepository.save(item);
+            touch(previousOrder, saved.getOrder());
+            return saved;
         }
         return null;
     }
 
+    @Transactional
     public boolean deleteOrderItem(Long id) {
-        if (orderItemRepository.existsById(id)) {
-            orderItemRepository.deleteById(id);
+        Optional<OrderItem> item = orderItemRepository.findById(id);
+        if (item.isPresent()) {
+            orderItemRepository.delete(item.get());
+            touch(item.get().getOrder());
             return true;
         }
         return false;
     }
+
+    private void touch(Order... orders) {
+        Set<Long> ids = new HashSet<>();
+        for (Order order : orders) {
+            if (order != null && order.getId() != null) {
+                ids.add(order.getId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            orderRepository.touchAll(ids, Product.modificationTime());
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package com.examly.springapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+/**
+ * Business counters for the order workflow. Placed orders and status transitions are only
+ * counted once their transaction commits, so a rolled-back order is never reported;
+ * stock rejections are counted immediately because they always roll back.
+ */
+@Component
+public class OrderMetrics {
+
+    // Status tags are limited to the known workflow states to keep the series count bounded
+    private static final Set<String> KNOWN_STATUSES = Set.of("PENDING", "SHIPPED", "DELIVERED", "CANCELLED");
+
+    private final MeterRegistry meterRegistry;
+    private final Counter ordersPlaced;
+    private final Counter stockRejections;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ordersPlaced = Counter.builder("orders.placed")
+                .description("Orders committed")
+                .register(meterRegistry);
+        this.stockRejections = Counter.builder("orders.stock.rejected")
+                .description("Orders rejected for insufficient stock")
+                .register(meterRegistry);
+    }
+
+    public void orderPlaced() {
+        afterCommit(ordersPlaced::increment);
+    }
+
+    public void stockRejected() {
+        stockRejections.increment();
+    }
+
+    public void statusChanged(String from, String to) {
+        if (to == null || to.equals(from)) {
+            return;
+        }
+        Counter counter = Counter.builder("orders.status.transitions")
+                .description("Committed order status changes")
+                .tag("from", statusTag(from))
+                .tag("to", statusTag(to))
+                .register(meterRegistry);
+        afterCommit(counter::increment);
+    }
+
+    private static String statusTag(String status) {
+        if (status == null) {
+            return "NONE";
+        }
+        return KNOWN_STATUSES.contains(status) ? status : "OTHER";
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.examly.springapp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the customer about placed orders and status changes. There is no mail gateway in
+ * this application yet, so the notification is logged; a real sender belongs here.
+ */
+@Slf4j
+@Component
+@Order(20)
+public class OrderNotificationStage implements FulfilmentStage {
+
+    @Override
+    public String name() {
+        return "notification";
+    }
+
+    @Override
+    public void handle(FulfilmentEvent event) {
+        if (event.type() == FulfilmentEvent.Type.PLACED) {
+            log.info("Notify: order {} placed", event.orderId());
+        } else {
+            log.info("Notify: order {} is now {}", event.orderId(), event.toStatus());
+        }
+    }
+}
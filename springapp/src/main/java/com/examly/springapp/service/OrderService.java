@@ -1,13 +1,18 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.OrderItemSummary;
+import com.examly.springapp.dto.OrderSummary;
 import com.examly.springapp.model.Order;
 import com.examly.springapp.model.OrderItem;
 import com.examly.springapp.model.Product;
 import com.examly.springapp.repository.OrderRepository;
 import com.examly.springapp.repository.ProductRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -21,16 +26,54 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private StockReservationEngine stockReservationEngine;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private SalesRollups salesRollups;
+
+    // Fulfilment events reach the FulfilmentPipeline only once the order transaction commits
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private static final Set<String> VALID_STATUSES = new HashSet<>(Arrays.asList(
             "PENDING", "SHIPPED", "DELIVERED", "CANCELLED"
     ));
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    // One statement for the page's order rows and one for their lines, both straight into records
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> getAllOrders(Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        CursorPage<OrderSummary> page = CursorPage.of(
+                orderRepository.findSummariesAfter(after == null ? 0L : after, Limit.of(pageSize + 1)),
+                pageSize, OrderSummary::id);
+        if (page.items().isEmpty()) {
+            return page;
+        }
+        Map<Long, OrderSummary> byId = new HashMap<>();
+        page.items().forEach(order -> byId.put(order.id(), order));
+        for (OrderItemSummary item : orderRepository.findItemSummariesByOrderIdIn(byId.keySet())) {
+            byId.get(item.orderId()).orderItems().add(item);
+        }
+        return page;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderRepository.findWithItemsById(id);
+    }
+
+    /** The order's current ETag, or empty if there is no such order. */
+    @Transactional(readOnly = true)
+    public Optional<String> getOrderEtag(Long id) {
+        return orderRepository.findVersionById(id)
+                .map(version -> VersionStamps.etag(version.getId(), version.getLastModified()));
     }
 
     @Transactional
@@ -48,34 +91,20 @@ public class OrderService {
         order.setOrderDate(LocalDateTime.now());
 
         List<OrderItem> orderItems = new ArrayList<>();
-        double totalAmount = 0.0;
-
         for (Map<String, Object> itemData : orderItemsData) {
-            Long productId = ((Number) itemData.get("productId")).longValue();
-            int quantity = ((Number) itemData.get("quantity")).intValue();
-
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-            if (product.getStockQuantity() < quantity) {
-                throw new IllegalArgumentException("Insufficient stock");
-            }
-
             OrderItem item = new OrderItem();
-            item.setProductId(productId);
-            item.setProduct(product);
-            item.setQuantity(quantity);
-            item.setPriceAtPurchase(product.getPrice());
-            item.setOrder(order);
+            item.setProductId(((Number) itemData.get("productId")).longValue());
+            item.setQuantity(((Number) itemData.get("quantity")).intValue());
             orderItems.add(item);
-
-            totalAmount += product.getPrice() * quantity;
-            product.setStockQuantity(product.getStockQuantity() - quantity);
-            productRepository.save(product);
         }
 
         order.setOrderItems(orderItems);
-        order.setTotalAmount(totalAmount);
-        return orderRepository.save(order);
+        order.setTotalAmount(reserveStock(order, orderItems));
+        Order saved = orderRepository.save(order);
+        orderMetrics.orderPlaced();
+        salesRollups.orderAdded(saved);
+        eventPublisher.publishEvent(FulfilmentEvent.placed(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -84,40 +113,79 @@ public class OrderService {
         order.setStatus("PENDING");
 
         if (order.getOrderItems() != null) {
-            // First, validate stock for all items
-            for (OrderItem item : order.getOrderItems()) {
-                Long productId = item.getProductId();
-                Product product = productRepository.findById(productId)
-                        .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-
-                if (product.getStockQuantity() < item.getQuantity()) {
-                    throw new IllegalArgumentException("Insufficient stock");
-                }
-            }
+            order.setTotalAmount(reserveStock(order, order.getOrderItems()));
+        } else {
+            order.setTotalAmount(0.0);
+        }
 
-            // If all validations pass, then update stock and build the order
-            double total = 0.0;
-            for (OrderItem item : order.getOrderItems()) {
-                Long productId = item.getProductId();
-                Product product = productRepository.findById(productId).get(); // We know it exists from the first loop
+        Order saved = orderRepository.save(order);
+        orderMetrics.orderPlaced();
+        salesRollups.orderAdded(saved);
+        eventPublisher.publishEvent(FulfilmentEvent.placed(saved.getId()));
+        return saved;
+    }
 
-                product.setStockQuantity(product.getStockQuantity() - item.getQuantity());
-                productRepository.save(product);
+    /**
+     * Validates and applies the stock decrements for a new order. All referenced products
+     * are fetched with one IN query and every item is checked before any stock changes.
+     * The decrements themselves go through the {@link StockReservationEngine}, which never
+     * lets two concurrent orders both take the last unit. Returns the order total.
+     */
+    private double reserveStock(Order order, List<OrderItem> items) {
+        Map<Long, Product> products = loadProducts(items);
+
+        // Validate against the combined quantity, in case a product appears on several lines
+        Map<Long, Integer> requested = new HashMap<>();
+        for (OrderItem item : items) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            if (products.get(entry.getKey()).getStockQuantity() < entry.getValue()) {
+                orderMetrics.stockRejected();
+                throw new IllegalArgumentException("Insufficient stock");
+            }
+        }
+        // The read above may already be stale; the engine is the authoritative check
+        StockReservationEngine.Result reservation = stockReservationEngine.reserve(requested);
+        if (reservation.isRejected()) {
+            orderMetrics.stockRejected();
+            throw new IllegalArgumentException("Insufficient stock");
+        }
+        Set<String> categories = new HashSet<>();
+        products.values().forEach(product -> categories.add(product.getCategory()));
+        productCache.invalidate(products.keySet(), categories);
 
-                double price = product.getPrice();
-                item.setPriceAtPurchase(price);
-                item.setOrder(order);
-                item.setProduct(product);
+        double total = 0.0;
+        for (OrderItem item : items) {
+            Product product = products.get(item.getProductId());
 
-                total += price * item.getQuantity();
-            }
+            double price = product.getPrice();
+            item.setPriceAtPurchase(price);
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setStockPending(reservation.deferred().contains(product.getProductId()));
 
-            order.setTotalAmount(total);
-        } else {
-            order.setTotalAmount(0.0);
+            total += price * item.getQuantity();
         }
+        return total;
+    }
 
-        return orderRepository.save(order);
+    private Map<Long, Product> loadProducts(List<OrderItem> items) {
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product not found");
+            }
+            productIds.add(item.getProductId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getProductId(), product);
+        }
+        if (products.size() != productIds.size()) {
+            throw new IllegalArgumentException("Product not found");
+        }
+        return products;
     }
 
     @Transactional
@@ -126,6 +194,11 @@ public class OrderService {
 
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
+            String previousStatus = order.getStatus();
+            checkTransition(previousStatus, updatedOrder.getStatus());
+            SalesRollups.checkOrderDate(updatedOrder.getOrderDate());
+            orderMetrics.statusChanged(previousStatus, updatedOrder.getStatus());
+            SalesRollups.Contribution before = salesRollups.snapshot(order);
 
             order.setCustomerName(updatedOrder.getCustomerName());
             order.setCustomerEmail(updatedOrder.getCustomerEmail());
@@ -135,14 +208,12 @@ public class OrderService {
 
             // Handle order items update
             if (updatedOrder.getOrderItems() != null) {
+                Map<Long, Product> products = loadProducts(updatedOrder.getOrderItems());
                 // Clear old items
                 order.getOrderItems().clear();
                 double total = 0.0;
                 for (OrderItem item : updatedOrder.getOrderItems()) {
-                    Long productId = item.getProductId();
-                    Product product = productRepository.findById(productId)
-                            .orElseThrow(() -> new IllegalArgumentException("Product not found"));
-                    item.setProduct(product);
+                    item.setProduct(products.get(item.getProductId()));
                     item.setOrder(order);
                     if (item.getPriceAtPurchase() == null) {
                         item.setPriceAtPurchase(item.getProduct().getPrice());
@@ -153,14 +224,36 @@ public class OrderService {
                 order.setTotalAmount(total);
             }
 
-            return orderRepository.save(order);
+            order.touch();
+            Order saved = orderRepository.save(order);
+            salesRollups.orderChanged(before, saved);
+            publishStatusChange(saved, previousStatus);
+            return saved;
         }
         return null;
     }
 
+    // A cancelled order's stock goes back through the fulfilment pipeline and is never
+    // reserved again, so reopening it would sell the same units twice
+    private static void checkTransition(String previousStatus, String status) {
+        if ("CANCELLED".equals(previousStatus) && !"CANCELLED".equals(status)) {
+            throw new IllegalArgumentException("Cancelled orders cannot be reopened");
+        }
+    }
+
+    private void publishStatusChange(Order order, String previousStatus) {
+        if (order.getStatus() != null && !order.getStatus().equals(previousStatus)) {
+            eventPublisher.publishEvent(FulfilmentEvent.statusChanged(order.getId(), previousStatus, order.getStatus()));
+        }
+    }
+
+    @Transactional
     public boolean deleteOrder(Long id) {
-        if (orderRepository.existsById(id)) {
-            orderRepository.deleteById(id);
+        Optional<Order> order = orderRepository.findById(id);
+        if (order.isPresent()) {
+            SalesRollups.Contribution before = salesRollups.snapshot(order.get());
+            orderRepository.delete(order.get());
+            salesRollups.orderRemoved(before);
             return true;
         }
         return false;
@@ -175,8 +268,16 @@ public class OrderService {
         Optional<Order> optionalOrder = orderRepository.findById(id);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
+            String previousStatus = order.getStatus();
+            checkTransition(previousStatus, status);
+            orderMetrics.statusChanged(previousStatus, status);
+            SalesRollups.Contribution before = salesRollups.snapshot(order);
             order.setStatus(status);
-            return orderRepository.save(order);
+            order.touch();
+            Order saved = orderRepository.save(order);
+            salesRollups.orderChanged(before, saved);
+            publishStatusChange(saved, previousStatus);
+            return saved;
         }
         return null;
     }
@@ -0,0 +1,126 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.ReadReplicas;
+import com.examly.springapp.dto.ProductSummary;
+import com.examly.springapp.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache in front of {@link com.examly.springapp.repository.ProductRepository}
+ * for by-id reads and filtered listing pages. Writers call {@link #invalidate} once their
+ * change is committed: the product's own entry is dropped, along with every listing page
+ * whose category filter could include it. Since every product write passes through here,
+ * this is also where the products {@link VersionStamps} counter moves.
+ */
+@Component
+public class ProductCache {
+
+    /** {@code categories} holds the resolved category names, or {@code null} when not filtering by category. */
+    public record FilterKey(Set<String> categories, Double minPrice, Double maxPrice, Pageable pageable) {
+    }
+
+    private final Cache<Long, Product> byId;
+    private final Cache<FilterKey, Page<ProductSummary>> filtered;
+    private final VersionStamps versionStamps;
+    private final ObjectProvider<ReadReplicas> readReplicas;
+
+    public ProductCache(VersionStamps versionStamps, ObjectProvider<ReadReplicas> readReplicas,
+                        @Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.ttl:10m}") Duration ttl,
+                        @Value("${product.cache.filter-max-size:1000}") long filterMaxSize,
+                        @Value("${product.cache.filter-ttl:30s}") Duration filterTtl) {
+        this.versionStamps = versionStamps;
+        this.readReplicas = readReplicas;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.filtered = Caffeine.newBuilder()
+                .maximumSize(filterMaxSize)
+                .expireAfterWrite(filterTtl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        // Misses are not cached: a product created later must be visible immediately
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public Page<ProductSummary> getFiltered(FilterKey key, Supplier<Page<ProductSummary>> loader) {
+        return filtered.get(key, k -> loader.get());
+    }
+
+    /**
+     * Drops the given products and the listing pages that may contain them. A {@code null}
+     * category set means the categories are unknown, so every listing page is dropped.
+     * Inside a transaction this waits for the commit, so a concurrent reader cannot
+     * re-cache the pre-commit row. With read replicas the same entries are dropped again
+     * once no replica can still serve the pre-commit row.
+     */
+    public void invalidate(Collection<Long> productIds, Collection<String> categories) {
+        versionStamps.bump(VersionStamps.Table.PRODUCTS);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNowAndLater(productIds, categories);
+                }
+            });
+        } else {
+            evictNowAndLater(productIds, categories);
+        }
+    }
+
+    private void evictNowAndLater(Collection<Long> productIds, Collection<String> categories) {
+        evict(productIds, categories);
+        readReplicas.ifAvailable(replicas -> replicas.repeatAfterStalenessBound(() -> evict(productIds, categories)));
+    }
+
+    public void invalidate(Long productId, String... categories) {
+        invalidate(List.of(productId), Arrays.asList(categories));
+    }
+
+    private void evict(Collection<Long> productIds, Collection<String> categories) {
+        byId.invalidateAll(productIds);
+        if (categories == null) {
+            filtered.invalidateAll();
+            return;
+        }
+        filtered.asMap().keySet().removeIf(key -> key.categories() == null
+                || !Collections.disjoint(key.categories(), categories));
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("byId", describe(byId.stats(), byId.estimatedSize()));
+        stats.put("filtered", describe(filtered.stats(), filtered.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", size);
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictionCount", stats.evictionCount());
+        description.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return description;
+    }
+}
@@ -0,0 +1,271 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Product;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Imports products from a streamed CSV (with a header row naming Product properties) or
+ * NDJSON body. Rows are parsed incrementally into chunks; each chunk is validated in
+ * parallel and its valid rows are persisted in one transaction, flushing and clearing
+ * every JDBC batch, so memory use depends on the chunk size rather than the file size.
+ * Rejected rows are reported with their 1-based row number; a chunk that fails in the
+ * database is reported row by row and does not stop the import.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final MediaType mediaType;
+
+        Format(String contentType) {
+            this.mediaType = MediaType.parseMediaType(contentType);
+        }
+
+        public static Format forContentType(MediaType contentType) {
+            for (Format format : values()) {
+                if (format.mediaType.isCompatibleWith(contentType)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported import format");
+        }
+    }
+
+    public record RowError(long row, String sku, List<String> messages) {
+    }
+
+    /** {@code errors} holds at most {@link #MAX_REPORTED_ERRORS} entries; {@code failed} counts them all. */
+    public record ImportReport(long rows, long imported, long failed, List<RowError> errors, boolean errorsTruncated) {
+    }
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    // Matches hibernate.jdbc.batch_size, so every flush sends exactly one INSERT batch
+    private static final int FLUSH_EVERY = 50;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+
+    private record ParsedRow(long row, Product product, String error) {
+    }
+
+    private interface RowReader extends Closeable {
+        /** Next row, or {@code null} at the end of the input. */
+        ParsedRow next() throws IOException;
+    }
+
+    public ImportReport importProducts(Format format, InputStream in) {
+        Report report = new Report();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try (RowReader reader = format == Format.CSV ? csvReader(in) : ndjsonReader(in)) {
+            List<ParsedRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            ParsedRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, report, transactionTemplate);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, report, transactionTemplate);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return report.toImportReport();
+    }
+
+    private void importChunk(List<ParsedRow> chunk, Report report, TransactionTemplate transactionTemplate) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Validator instances are thread-safe; the chunk is independent of the parser
+        List<List<String>> problems = chunk.parallelStream().map(this::problems).toList();
+
+        List<Product> valid = new ArrayList<>(chunk.size());
+        List<ParsedRow> validRows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow row = chunk.get(i);
+            if (problems.get(i).isEmpty()) {
+                valid.add(row.product());
+                validRows.add(row);
+            } else {
+                report.fail(row.row(), row.product() == null ? null : row.product().getSku(), problems.get(i));
+            }
+        }
+        report.rows += chunk.size();
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> categories = new HashSet<>();
+                for (int i = 0; i < valid.size(); i++) {
+                    entityManager.persist(valid.get(i));
+                    categories.add(valid.get(i).getCategory());
+                    if ((i + 1) % FLUSH_EVERY == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                productCache.invalidate(List.of(), categories);
+            });
+            report.imported += valid.size();
+            productSearchIndex.indexAll(valid);
+        } catch (RuntimeException ex) {
+            String message = "Not imported: " + rootMessage(ex);
+            for (ParsedRow row : validRows) {
+                report.fail(row.row(), row.product().getSku(), List.of(message));
+            }
+        }
+    }
+
+    private List<String> problems(ParsedRow row) {
+        if (row.error() != null) {
+            return List.of(row.error());
+        }
+        Set<ConstraintViolation<Product>> violations = validator.validate(row.product());
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        List<String> messages = new ArrayList<>(violations.size());
+        for (ConstraintViolation<Product> violation : violations) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Collections.sort(messages);
+        return messages;
+    }
+
+    private Product toProduct(Object source) {
+        Product product = objectMapper.convertValue(source, Product.class);
+        // Imports always create: ids and ownership are never taken from the feed
+        product.setProductId(null);
+        product.setCreatedBy(null);
+        return product;
+    }
+
+    private RowReader ndjsonReader(InputStream in) {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return new RowReader() {
+            private long row;
+
+            @Override
+            public ParsedRow next() throws IOException {
+                String line;
+                do {
+                    line = lines.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                row++;
+                // Every line parses on its own, so a malformed line only fails that row
+                try {
+                    return new ParsedRow(row, toProduct(objectMapper.readTree(line)), null);
+                } catch (IOException | IllegalArgumentException ex) {
+                    return new ParsedRow(row, null, "Malformed row: " + rootMessage(ex));
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                lines.close();
+            }
+        };
+    }
+
+    private RowReader csvReader(InputStream in) throws IOException {
+        MappingIterator<Map<String, String>> rows = csvMapper.readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(in);
+        return new RowReader() {
+            private long row;
+            private boolean broken;
+
+            @Override
+            public ParsedRow next() throws IOException {
+                if (broken) {
+                    return null;
+                }
+                Map<String, String> values;
+                try {
+                    if (!rows.hasNextValue()) {
+                        return null;
+                    }
+                    values = rows.nextValue();
+                } catch (IOException | RuntimeException ex) {
+                    // The CSV parser cannot resynchronise reliably; report the row and stop reading
+                    broken = true;
+                    return new ParsedRow(++row, null, "Malformed row: " + rootMessage(ex));
+                }
+                row++;
+                values.values().removeIf(String::isEmpty);
+                try {
+                    return new ParsedRow(row, toProduct(values), null);
+                } catch (IllegalArgumentException ex) {
+                    return new ParsedRow(row, null, "Malformed row: " + rootMessage(ex));
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable root = ex;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage();
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private static final class Report {
+        private long rows;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void fail(long row, String sku, List<String> messages) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, sku, messages));
+            }
+        }
+
+        ImportReport toImportReport() {
+            return new ImportReport(rows, imported, failed, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,959 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.ReadReplicas;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.ProductRepository;
+import com.examly.springapp.repository.ProductRepository.SearchDocument;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name, description, sku and category, ranked
+ * with BM25. Term frequencies are field-weighted (a name or sku hit counts three times,
+ * a category hit twice), the last query token also matches as a prefix for typeahead,
+ * and tokens with no exact term fall back to terms within one or two edits. Documents
+ * matching more of the query tokens rank first.
+ *
+ * <p>The index is built from the database at startup and then kept current by
+ * {@link #index} and {@link #remove}, which apply after the writing transaction commits.
+ * Updates and deletes leave tombstones that are compacted away once they make up a
+ * quarter of the index. Searches share a read lock and never touch the database.
+ *
+ * <p>Every posting list of some length is also kept in impact order, so a search reads
+ * the highest-scoring postings first and stops once no document it has not seen can
+ * reach the k-th best score; on a large catalog a query over common terms reads a small
+ * fraction of their postings. Each document also keeps its own term list, which scores
+ * a promising document on every token without searching the postings for it. To keep
+ * the impact orders valid, lengths are normalized by the average document length as of
+ * the last reordering, which is redone whenever the live average drifts from it by more
+ * than 5%.
+ */
+@Service
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    public record SearchHit(Long productId, float score) {
+    }
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float SKU_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.9f;
+    private static final float[] TYPO_WEIGHT = {1f, 0.7f, 0.5f};
+    private static final int MAX_EXPANSIONS = 50;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MAX_QUERY_TOKENS = 16;
+    // Postings appended since their list was last put in impact order are scored in full;
+    // a list is reordered once that tail reaches this many postings or 1/256 of the list
+    private static final int MIN_UNORDERED_TAIL = 128;
+    private static final float AVERAGE_LENGTH_DRIFT = 0.05f;
+    // Each round reads the impact-ordered postings down to this fraction of the best one left
+    private static final float LEVEL_STEP = 0.9f;
+    // Between rounds, at most one document is looked up per this many postings read
+    private static final int LOOKUP_COST = 4;
+    // A token whose expansions hold at most this many postings is read in full up front
+    private static final int FULL_READ_POSTINGS = 8192;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    private State state = new State();
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Re-reads every product and swaps in a fresh index. Incremental updates wait for the
+     * rebuild, so none is lost; searches keep using the old index until the swap. Reads
+     * the primary, which has every change those updates were made from.
+     */
+    public synchronized void rebuild() {
+        State fresh = new State();
+        ReadReplicas.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<SearchDocument> documents = productRepository.streamSearchDocuments()) {
+                documents.forEach(doc -> fresh.add(doc.getProductId(),
+                        doc.getName(), doc.getDescription(), doc.getSku(), doc.getCategory()));
+            }
+        }));
+        fresh.orderPending();
+        lock.writeLock().lock();
+        try {
+            state = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Adds or replaces a product once the current transaction (if any) commits. */
+    public void index(Product product) {
+        indexAll(List.of(product));
+    }
+
+    public void indexAll(Collection<Product> products) {
+        List<Product> copy = List.copyOf(products);
+        afterCommit(() -> write(s -> {
+            for (Product product : copy) {
+                s.add(product.getProductId(), product.getName(), product.getDescription(),
+                        product.getSku(), product.getCategory());
+            }
+        }));
+    }
+
+    public void remove(Long productId) {
+        afterCommit(() -> write(s -> s.remove(productId)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized void write(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            state.compactIfNeeded();
+            state.orderPending();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** Best {@code limit} matches for {@code query}, highest score first. */
+    public List<SearchHit> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+        lock.readLock().lock();
+        try {
+            State s = state;
+            if (s.liveCount == 0) {
+                return List.of();
+            }
+            Scratch scratch = borrowScratch();
+            try {
+                return s.search(tokens, limit, scratch);
+            } finally {
+                scratch.reset();
+                scratchPool.offer(scratch);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Scratch borrowScratch() {
+        Scratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Optimal-string-alignment distance (edits plus adjacent transpositions), or
+     * {@code max + 1} as soon as the distance is known to exceed {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /** Per-query accumulators, pooled so a search allocates nothing proportional to the catalog. */
+    private static final class Scratch {
+        private static final int TABLE_SIZE = 4096;
+
+        // Open-addressing table from document (plus one) to slot; sized to the documents a
+        // query sees rather than the catalog, so it stays in cache
+        private int[] tableDocs = new int[TABLE_SIZE];
+        private int[] tableSlots = new int[TABLE_SIZE];
+        private int[] slotDocs = new int[1024];
+        // Best score per slot and token; 0 until the document is seen with that token
+        private float[] best = new float[2048];
+        private float[] lowerBounds = new float[1024];
+        private int[] heapPositions = new int[1024];
+        private boolean[] resolved = new boolean[1024];
+        private int slotCount;
+        private int tokenCount;
+        // Min-heap of the slots with the best lower bounds, the k-th best at the root
+        private int[] heap = new int[32];
+        private int heapSize;
+        private int limit;
+        // Upper bound and slot of the documents to look up, in the same order as impact keys
+        private long[] candidates = new long[1024];
+        // Postings read since candidates were last looked up
+        private int reads;
+
+        void begin(int tokenCount, int limit) {
+            this.tokenCount = tokenCount;
+            this.limit = limit;
+            if (heap.length < limit) {
+                heap = new int[limit];
+            }
+        }
+
+        int slot(int doc) {
+            int mask = tableDocs.length - 1;
+            int index = position(doc, mask);
+            while (tableDocs[index] != 0) {
+                if (tableDocs[index] == doc + 1) {
+                    return tableSlots[index];
+                }
+                index = (index + 1) & mask;
+            }
+            int slot = slotCount++;
+            if (slot == slotDocs.length) {
+                slotDocs = Arrays.copyOf(slotDocs, slot * 2);
+                lowerBounds = Arrays.copyOf(lowerBounds, slot * 2);
+                heapPositions = Arrays.copyOf(heapPositions, slot * 2);
+                resolved = Arrays.copyOf(resolved, slot * 2);
+            }
+            if (slotCount * tokenCount > best.length) {
+                best = Arrays.copyOf(best, Math.max(best.length * 2, slotCount * tokenCount));
+            }
+            slotDocs[slot] = doc;
+            lowerBounds[slot] = 0f;
+            heapPositions[slot] = -1;
+            resolved[slot] = false;
+            Arrays.fill(best, slot * tokenCount, slotCount * tokenCount, 0f);
+            tableDocs[index] = doc + 1;
+            tableSlots[index] = slot;
+            if (slotCount * 2 > tableDocs.length) {
+                grow();
+            }
+            return slot;
+        }
+
+        private static int position(int doc, int mask) {
+            return (doc * 0x9E3779B9 >>> 16 ^ doc * 0x9E3779B9) & mask;
+        }
+
+        private void grow() {
+            tableDocs = new int[tableDocs.length * 2];
+            tableSlots = new int[tableDocs.length];
+            int mask = tableDocs.length - 1;
+            for (int slot = 0; slot < slotCount; slot++) {
+                int index = position(slotDocs[slot], mask);
+                while (tableDocs[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                tableDocs[index] = slotDocs[slot] + 1;
+                tableSlots[index] = slot;
+            }
+        }
+
+        // Score of the slot from the tokens seen so far; final once every token is known
+        float score(int slot) {
+            float sum = 0f;
+            int matched = 0;
+            for (int t = slot * tokenCount; t < (slot + 1) * tokenCount; t++) {
+                if (best[t] > 0f) {
+                    sum += best[t];
+                    matched++;
+                }
+            }
+            return sum * matched / tokenCount;
+        }
+
+        // Highest score the slot, or with -1 a document not seen yet, could still reach
+        // when every token may still add up to its frontier
+        float upperBound(int slot, float[] frontier) {
+            if (slot >= 0 && resolved[slot]) {
+                return score(slot);
+            }
+            float sum = 0f;
+            int matched = 0;
+            for (int t = 0; t < tokenCount; t++) {
+                float score = slot < 0 ? frontier[t] : Math.max(best[slot * tokenCount + t], frontier[t]);
+                if (score > 0f) {
+                    sum += score;
+                    matched++;
+                }
+            }
+            return sum * matched / tokenCount;
+        }
+
+        // Lower bound on the final k-th best score once the heap is full
+        float kthBest() {
+            return heapSize < limit ? 0f : lowerBounds[heap[0]];
+        }
+
+        void reset() {
+            // A table grown by a broad query is dropped rather than cleared
+            if (tableDocs.length > TABLE_SIZE) {
+                tableDocs = new int[TABLE_SIZE];
+                tableSlots = new int[TABLE_SIZE];
+            } else {
+                Arrays.fill(tableDocs, 0);
+            }
+            slotCount = 0;
+            heapSize = 0;
+            reads = 0;
+        }
+    }
+
+    private static final class Postings {
+        private final int id;
+        private int[] docs = new int[2];
+        private float[] frequencies = new float[2];
+        private int size;
+        // The first `ordered` postings again as impact keys (see State#impactKey), ascending,
+        // so highest impact first; null until the list is first ordered
+        private long[] byImpact;
+        private int ordered;
+        private boolean pending;
+
+        Postings(int id) {
+            this.id = id;
+        }
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+        }
+    }
+
+    private record Expansion(Postings postings, float weight) {
+    }
+
+    /** The posting lists of one query's expansions and how far each has been read in impact order. */
+    private static final class QueryLists {
+        private final Postings[] postings;
+        private final int[] tokenOf;
+        private final float[] weights;
+        private final int[] positions;
+        // Highest score each list, and each token, can still add from the postings not read yet
+        private final float[] bounds;
+        private final float[] frontier;
+        // Open-addressing table from term id (plus one) to the first list of that term;
+        // the same term can be an expansion of several tokens
+        private final int[] termIds;
+        private final int[] firstList;
+        private final int[] sameTerm;
+
+        QueryLists(int listCount, int tokenCount) {
+            postings = new Postings[listCount];
+            tokenOf = new int[listCount];
+            weights = new float[listCount];
+            positions = new int[listCount];
+            bounds = new float[listCount];
+            frontier = new float[tokenCount];
+            termIds = new int[Integer.highestOneBit(Math.max(listCount, 1)) * 4];
+            firstList = new int[termIds.length];
+            sameTerm = new int[listCount];
+        }
+
+        void add(int e, Postings list, int token, float weight) {
+            postings[e] = list;
+            tokenOf[e] = token;
+            weights[e] = weight;
+            int slot = list.id & (termIds.length - 1);
+            while (termIds[slot] != 0 && termIds[slot] != list.id + 1) {
+                slot = (slot + 1) & (termIds.length - 1);
+            }
+            sameTerm[e] = termIds[slot] == 0 ? -1 : firstList[slot];
+            termIds[slot] = list.id + 1;
+            firstList[slot] = e;
+        }
+
+        // First list of the term, then follow sameTerm; -1 when the term is not in the query
+        int find(int termId) {
+            int slot = termId & (termIds.length - 1);
+            while (termIds[slot] != 0) {
+                if (termIds[slot] == termId + 1) {
+                    return firstList[slot];
+                }
+                slot = (slot + 1) & (termIds.length - 1);
+            }
+            return -1;
+        }
+
+        float updateBounds() {
+            Arrays.fill(frontier, 0f);
+            float highest = 0f;
+            for (int e = 0; e < postings.length; e++) {
+                Postings list = postings[e];
+                bounds[e] = positions[e] < list.ordered ? weights[e] * State.impactOf(list.byImpact[positions[e]]) : 0f;
+                frontier[tokenOf[e]] = Math.max(frontier[tokenOf[e]], bounds[e]);
+                highest = Math.max(highest, bounds[e]);
+            }
+            return highest;
+        }
+    }
+
+    /** Documents get dense internal numbers in insertion order, so every posting list stays sorted. */
+    private static final class State {
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Map<Long, Integer> docByProduct = new HashMap<>();
+        private final List<Postings> pending = new ArrayList<>();
+        private long[] productIds = new long[1024];
+        private float[] lengths = new float[1024];
+        // Term id (high half) and frequency bits of every term of every document, the
+        // document's run starting at termStarts[doc]
+        private long[] docTerms = new long[8192];
+        private int[] termStarts = new int[1025];
+        private int nextTermId;
+        private final BitSet deleted = new BitSet();
+        private int docCount;
+        private int liveCount;
+        private double totalLength;
+        // The average length scores are normalized by; 0 until the first ordering
+        private float averageLength;
+
+        void add(Long productId, String name, String description, String sku, String category) {
+            if (productId == null) {
+                return;
+            }
+            remove(productId);
+            Map<String, Float> frequencies = new HashMap<>();
+            float length = addField(frequencies, name, NAME_WEIGHT)
+                    + addField(frequencies, description, DESCRIPTION_WEIGHT)
+                    + addField(frequencies, sku, SKU_WEIGHT)
+                    + addField(frequencies, category, CATEGORY_WEIGHT);
+
+            int doc = docCount++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            productIds[doc] = productId;
+            lengths[doc] = length;
+            if (termStarts.length < productIds.length + 1) {
+                termStarts = Arrays.copyOf(termStarts, productIds.length + 1);
+            }
+            int start = termStarts[doc];
+            if (start + frequencies.size() > docTerms.length) {
+                docTerms = Arrays.copyOf(docTerms, Math.max(docTerms.length * 2, start + frequencies.size()));
+            }
+            termStarts[doc + 1] = start + frequencies.size();
+            int[] next = {start};
+            frequencies.forEach((term, frequency) -> {
+                Postings postings = terms.computeIfAbsent(term, t -> new Postings(nextTermId++));
+                postings.add(doc, frequency);
+                docTerms[next[0]++] = (long) postings.id << 32 | Float.floatToRawIntBits(frequency);
+                if (!postings.pending) {
+                    postings.pending = true;
+                    pending.add(postings);
+                }
+            });
+            docByProduct.put(productId, doc);
+            liveCount++;
+            totalLength += length;
+        }
+
+        private static float addField(Map<String, Float> frequencies, String text, float weight) {
+            List<String> tokens = tokenize(text);
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Float::sum);
+            }
+            return tokens.size() * weight;
+        }
+
+        void remove(Long productId) {
+            Integer doc = docByProduct.remove(productId);
+            if (doc != null) {
+                deleted.set(doc);
+                liveCount--;
+                totalLength -= lengths[doc];
+            }
+        }
+
+        void compactIfNeeded() {
+            int dead = docCount - liveCount;
+            if (dead < 1024 || dead < docCount / 4) {
+                return;
+            }
+            int[] remap = new int[docCount];
+            int next = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                remap[doc] = deleted.get(doc) ? -1 : next++;
+            }
+            for (Iterator<Postings> it = terms.values().iterator(); it.hasNext(); ) {
+                Postings postings = it.next();
+                int kept = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = remap[postings.docs[i]];
+                    if (doc >= 0) {
+                        postings.docs[kept] = doc;
+                        postings.frequencies[kept++] = postings.frequencies[i];
+                    }
+                }
+                postings.size = kept;
+                if (kept == 0) {
+                    it.remove();
+                }
+            }
+            int termCount = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (remap[doc] >= 0) {
+                    productIds[remap[doc]] = productIds[doc];
+                    lengths[remap[doc]] = lengths[doc];
+                    int start = termStarts[doc];
+                    int end = termStarts[doc + 1];
+                    System.arraycopy(docTerms, start, docTerms, termCount, end - start);
+                    termStarts[remap[doc]] = termCount;
+                    termCount += end - start;
+                }
+            }
+            termStarts[next] = termCount;
+            docByProduct.replaceAll((productId, doc) -> remap[doc]);
+            deleted.clear();
+            docCount = next;
+            // The impact keys hold the old document numbers
+            orderAll();
+        }
+
+        /**
+         * Puts the lists written to since the last call back in impact order once their
+         * unordered tail is long enough, or every list when the average length has drifted.
+         */
+        void orderPending() {
+            float live = (float) Math.max(totalLength / Math.max(liveCount, 1), 1.0);
+            if (Math.abs(live - averageLength) > averageLength * AVERAGE_LENGTH_DRIFT) {
+                orderAll();
+                return;
+            }
+            for (Postings postings : pending) {
+                postings.pending = false;
+                int tail = postings.size - postings.ordered;
+                if (tail >= Math.max(MIN_UNORDERED_TAIL, postings.ordered >> 8)) {
+                    order(postings);
+                }
+            }
+            pending.clear();
+        }
+
+        private void orderAll() {
+            averageLength = (float) Math.max(totalLength / Math.max(liveCount, 1), 1.0);
+            for (Postings postings : pending) {
+                postings.pending = false;
+            }
+            pending.clear();
+            for (Postings postings : terms.values()) {
+                postings.ordered = 0;
+                postings.byImpact = null;
+                if (postings.size >= MIN_UNORDERED_TAIL) {
+                    order(postings);
+                }
+            }
+        }
+
+        // Sorts the tail and merges it into the ordered part, from the back so no copy is needed
+        private void order(Postings postings) {
+            int tail = postings.size - postings.ordered;
+            long[] keys = new long[tail];
+            for (int i = 0; i < tail; i++) {
+                keys[i] = impactKey(postings, postings.ordered + i);
+            }
+            Arrays.sort(keys);
+            if (postings.byImpact == null || postings.byImpact.length < postings.size) {
+                int capacity = postings.size + (postings.size >> 3);
+                postings.byImpact = postings.byImpact == null
+                        ? new long[capacity] : Arrays.copyOf(postings.byImpact, capacity);
+            }
+            long[] byImpact = postings.byImpact;
+            int a = postings.ordered - 1;
+            int b = tail - 1;
+            for (int out = postings.size - 1; b >= 0; out--) {
+                byImpact[out] = a >= 0 && byImpact[a] > keys[b] ? byImpact[a--] : keys[b--];
+            }
+            postings.ordered = postings.size;
+        }
+
+        // Impact in the high half, inverted so ascending keys run from the highest impact down
+        private long impactKey(Postings postings, int index) {
+            int doc = postings.docs[index];
+            float impact = impact(postings.frequencies[index], doc);
+            return (long) (Integer.MAX_VALUE - Float.floatToRawIntBits(impact)) << 32 | doc;
+        }
+
+        private static float impactOf(long key) {
+            return Float.intBitsToFloat(Integer.MAX_VALUE - (int) (key >>> 32));
+        }
+
+        private static int docOf(long key) {
+            return (int) key;
+        }
+
+        /**
+         * Reads the postings of every expansion in rounds of decreasing score, keeping for each
+         * document it sees the best score per token. Between rounds the documents that could
+         * still make the top {@code limit} are looked up in their own term lists, best first and
+         * no more than the round's reads pay for, which keeps the k-th best score realistic;
+         * reading stops once documents not seen yet cannot reach it. A token's score is that of
+         * its best expansion, and the sum is scaled by the share of tokens matched, so
+         * documents matching more tokens rank first.
+         */
+        List<SearchHit> search(List<String> tokens, int limit, Scratch scratch) {
+            int tokenCount = tokens.size();
+            List<List<Expansion>> groups = new ArrayList<>(tokenCount);
+            int listCount = 0;
+            for (int t = 0; t < tokenCount; t++) {
+                groups.add(expand(tokens.get(t), t == tokenCount - 1));
+                listCount += groups.get(t).size();
+            }
+            QueryLists lists = new QueryLists(listCount, tokenCount);
+            int e = 0;
+            for (int t = 0; t < tokenCount; t++) {
+                for (Expansion expansion : groups.get(t)) {
+                    lists.add(e++, expansion.postings(), t, idf(expansion) * expansion.weight());
+                }
+            }
+            scratch.begin(tokenCount, limit);
+            boolean anyDeleted = liveCount != docCount;
+
+            // A token with few postings is read in full: from then on a document not seen yet
+            // misses it, which caps its score at once. Of the other lists, the postings not in
+            // impact order yet are read in full
+            int[] tokenSizes = new int[tokenCount];
+            for (e = 0; e < listCount; e++) {
+                tokenSizes[lists.tokenOf[e]] += lists.postings[e].size;
+            }
+            for (e = 0; e < listCount; e++) {
+                Postings postings = lists.postings[e];
+                int token = lists.tokenOf[e];
+                if (tokenSizes[token] <= FULL_READ_POSTINGS) {
+                    for (int i = 0; i < postings.ordered; i++) {
+                        long key = postings.byImpact[i];
+                        int doc = docOf(key);
+                        if (!anyDeleted || !deleted.get(doc)) {
+                            read(scratch, doc, token, lists.weights[e] * impactOf(key));
+                        }
+                    }
+                    lists.positions[e] = postings.ordered;
+                }
+                for (int i = postings.ordered; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    if (!anyDeleted || !deleted.get(doc)) {
+                        read(scratch, doc, token, lists.weights[e] * impact(postings.frequencies[i], doc));
+                    }
+                }
+            }
+            while (true) {
+                float highest = lists.updateBounds();
+                lookUpCandidates(scratch, lists, scratch.reads / LOOKUP_COST);
+                if (highest == 0f
+                        || scratch.heapSize == limit && scratch.upperBound(-1, lists.frontier) < scratch.kthBest()) {
+                    lookUpCandidates(scratch, lists, Integer.MAX_VALUE);
+                    return hits(scratch);
+                }
+                scratch.reads = 0;
+                float level = highest * LEVEL_STEP;
+                for (e = 0; e < listCount; e++) {
+                    Postings postings = lists.postings[e];
+                    int position = lists.positions[e];
+                    for (; position < postings.ordered; position++) {
+                        long key = postings.byImpact[position];
+                        float score = lists.weights[e] * impactOf(key);
+                        if (score < level) {
+                            break;
+                        }
+                        int doc = docOf(key);
+                        if (!anyDeleted || !deleted.get(doc)) {
+                            read(scratch, doc, lists.tokenOf[e], score);
+                        }
+                    }
+                    if (position != lists.positions[e]) {
+                        lists.positions[e] = position;
+                        lists.updateBounds();
+                    }
+                }
+            }
+        }
+
+        private void read(Scratch scratch, int doc, int token, float score) {
+            scratch.reads++;
+            int slot = scratch.slot(doc);
+            int index = slot * scratch.tokenCount + token;
+            if (score > scratch.best[index]) {
+                scratch.best[index] = score;
+                offer(scratch, slot);
+            }
+        }
+
+        // Scores every query term the document has from its term list
+        private void resolve(Scratch scratch, QueryLists lists, int slot) {
+            if (scratch.resolved[slot]) {
+                return;
+            }
+            scratch.resolved[slot] = true;
+            int doc = scratch.slotDocs[slot];
+            for (int i = termStarts[doc]; i < termStarts[doc + 1]; i++) {
+                long entry = docTerms[i];
+                for (int e = lists.find((int) (entry >>> 32)); e >= 0; e = lists.sameTerm[e]) {
+                    int index = slot * scratch.tokenCount + lists.tokenOf[e];
+                    float score = lists.weights[e] * impact(Float.intBitsToFloat((int) entry), doc);
+                    scratch.best[index] = Math.max(scratch.best[index], score);
+                }
+            }
+        }
+
+        /**
+         * Looks up the seen documents that could still reach the k-th best score, highest upper
+         * bound first: the k-th best rises as they are scored, and the rest are left once their
+         * bound falls below it. Afterwards no document seen so far outside the heap can enter it.
+         */
+        private void lookUpCandidates(Scratch scratch, QueryLists lists, int budget) {
+            float kthBest = scratch.kthBest();
+            long[] candidates = scratch.candidates;
+            int count = 0;
+            for (int slot = 0; slot < scratch.slotCount; slot++) {
+                if (scratch.resolved[slot]) {
+                    continue;
+                }
+                float upperBound = scratch.upperBound(slot, lists.frontier);
+                if (upperBound < kthBest) {
+                    continue;
+                }
+                if (count == candidates.length) {
+                    candidates = scratch.candidates = Arrays.copyOf(candidates, count * 2);
+                }
+                candidates[count++] = (long) (Integer.MAX_VALUE - Float.floatToRawIntBits(upperBound)) << 32 | slot;
+            }
+            Arrays.sort(candidates, 0, count);
+            for (int i = 0; i < count && i < budget && impactOf(candidates[i]) >= scratch.kthBest(); i++) {
+                int slot = (int) candidates[i];
+                // Nothing left to look up once every token is read as far as the document could score
+                if (impactOf(candidates[i]) > scratch.score(slot)) {
+                    resolve(scratch, lists, slot);
+                    offer(scratch, slot);
+                }
+                scratch.resolved[slot] = true;
+            }
+        }
+
+        // Keeps the heap of the best lower bounds current after the slot's bound rose
+        private void offer(Scratch scratch, int slot) {
+            scratch.lowerBounds[slot] = scratch.score(slot);
+            int position = scratch.heapPositions[slot];
+            if (position >= 0) {
+                siftDown(scratch, position);
+            } else if (scratch.heapSize < scratch.limit) {
+                scratch.heap[scratch.heapSize] = slot;
+                scratch.heapPositions[slot] = scratch.heapSize;
+                siftUp(scratch, scratch.heapSize++);
+            } else if (better(scratch, slot, scratch.heap[0])) {
+                scratch.heapPositions[scratch.heap[0]] = -1;
+                scratch.heap[0] = slot;
+                scratch.heapPositions[slot] = 0;
+                siftDown(scratch, 0);
+            }
+        }
+
+        // Empties the heap, whose documents are final by now, worst first
+        private List<SearchHit> hits(Scratch scratch) {
+            SearchHit[] hits = new SearchHit[scratch.heapSize];
+            while (scratch.heapSize > 0) {
+                int slot = scratch.heap[0];
+                hits[scratch.heapSize - 1] = new SearchHit(productIds[scratch.slotDocs[slot]], scratch.lowerBounds[slot]);
+                swap(scratch, 0, --scratch.heapSize);
+                siftDown(scratch, 0);
+            }
+            return Arrays.asList(hits);
+        }
+
+        private boolean better(float score, int doc, float otherScore, int otherDoc) {
+            return score > otherScore || score == otherScore && productIds[doc] < productIds[otherDoc];
+        }
+
+        private boolean better(Scratch scratch, int slot, int otherSlot) {
+            return better(scratch.lowerBounds[slot], scratch.slotDocs[slot],
+                    scratch.lowerBounds[otherSlot], scratch.slotDocs[otherSlot]);
+        }
+
+        // The lower-bound heap also tracks each slot's position, since bounds rise in place
+        private void siftUp(Scratch scratch, int index) {
+            int[] heap = scratch.heap;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!better(scratch, heap[parent], heap[index])) {
+                    return;
+                }
+                swap(scratch, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(Scratch scratch, int index) {
+            int[] heap = scratch.heap;
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < scratch.heapSize; child++) {
+                    if (better(scratch, heap[worst], heap[child])) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(scratch, worst, index);
+                index = worst;
+            }
+        }
+
+        private static void swap(Scratch scratch, int a, int b) {
+            int slot = scratch.heap[a];
+            scratch.heap[a] = scratch.heap[b];
+            scratch.heap[b] = slot;
+            scratch.heapPositions[scratch.heap[a]] = a;
+            scratch.heapPositions[scratch.heap[b]] = b;
+        }
+
+        private float idf(Expansion expansion) {
+            int df = expansion.postings().size;
+            return Math.max((float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5)), 0.01f);
+        }
+
+        private float impact(float frequency, int doc) {
+            float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            return frequency * (K1 + 1) / (frequency + norm);
+        }
+
+        private List<Expansion> expand(String token, boolean typeahead) {
+            List<Expansion> expansions = new ArrayList<>();
+            Postings exact = terms.get(token);
+            if (exact != null) {
+                expansions.add(new Expansion(exact, 1f));
+            }
+            if (typeahead && token.length() >= MIN_PREFIX_LENGTH) {
+                SortedMap<String, Postings> prefixed = terms.subMap(token, false, token + Character.MAX_VALUE, false);
+                expansions.addAll(mostFrequent(prefixed.values(), PREFIX_WEIGHT));
+            }
+            if (exact == null && token.length() >= MIN_TYPO_LENGTH) {
+                expansions.addAll(typos(token));
+            }
+            return expansions;
+        }
+
+        private static List<Expansion> mostFrequent(Collection<Postings> candidates, float weight) {
+            List<Postings> chosen = new ArrayList<>(candidates);
+            if (chosen.size() > MAX_EXPANSIONS) {
+                chosen.sort(Comparator.comparingInt((Postings p) -> p.size).reversed());
+                chosen = chosen.subList(0, MAX_EXPANSIONS);
+            }
+            List<Expansion> expansions = new ArrayList<>(chosen.size());
+            for (Postings postings : chosen) {
+                expansions.add(new Expansion(postings, weight));
+            }
+            return expansions;
+        }
+
+        // Candidates share the first character, which keeps the scan to a small slice of the dictionary
+        private List<Expansion> typos(String token) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            String first = token.substring(0, 1);
+            List<Expansion> expansions = new ArrayList<>();
+            for (Map.Entry<String, Postings> entry
+                    : terms.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                String term = entry.getKey();
+                if (Math.abs(term.length() - token.length()) > maxEdits) {
+                    continue;
+                }
+                int distance = editDistance(token, term, maxEdits);
+                if (distance <= maxEdits) {
+                    expansions.add(new Expansion(entry.getValue(), TYPO_WEIGHT[distance]));
+                }
+            }
+            if (expansions.size() > MAX_EXPANSIONS) {
+                expansions.sort(Comparator.comparingDouble(Expansion::weight).reversed()
+                        .thenComparing(e -> -e.postings().size));
+                return expansions.subList(0, MAX_EXPANSIONS);
+            }
+            return expansions;
+        }
+    }
+}
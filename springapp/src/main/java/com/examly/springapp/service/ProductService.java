@@ -2,15 +2,24 @@
 
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.ProductSummary;
 import com.examly.springapp.model.Product;
 import com.examly.springapp.repository.ProductRepository;
+import com.examly.springapp.repository.ProductSpecifications;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -20,42 +29,110 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final Validator validator;
+    private final StockReservationEngine stockReservationEngine;
+    private final ProductCache productCache;
+    private final CategoryTree categoryTree;
+    private final ProductSearchIndex productSearchIndex;
 
     public Product createProduct(Product product) {
         Set<ConstraintViolation<Product>> violations = validator.validate(product);
         if (!violations.isEmpty()) {
             throw new ConstraintViolationException(violations);
         }
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.invalidate(saved.getProductId(), saved.getCategory());
+        productSearchIndex.index(saved);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.getById(id, productRepository::findById);
     }
 
+    @Transactional
     public Product updateProduct(Product product) {
-        if (!productRepository.existsById(product.getProductId())) {
-            throw new RuntimeException("Product not found");
+        return updateProduct(product, null);
+    }
+
+    /**
+     * Updates a product only if its current ETag satisfies {@code ifMatch} (an {@code If-Match}
+     * header value, or {@code null} for an unconditional update). The row stays locked from
+     * the check to the commit, so two writers holding the same tag cannot both succeed.
+     */
+    @Transactional
+    public Product updateProduct(Product product, String ifMatch) {
+        Product previous = (ifMatch == null
+                ? productRepository.findById(product.getProductId())
+                : productRepository.findLockedByProductId(product.getProductId()))
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (ifMatch != null && !VersionStamps.matches(ifMatch, VersionStamps.etag(previous))) {
+            throw new OptimisticLockingFailureException("Product was modified since it was read");
         }
-        return productRepository.save(product);
+        int previousStock = previous.getStockQuantity();
+        String previousCategory = previous.getCategory();
+        Product saved = productRepository.save(product);
+        stockReservationEngine.stockChanged(saved.getProductId(), saved.getStockQuantity() - previousStock);
+        productCache.invalidate(saved.getProductId(), previousCategory, saved.getCategory());
+        productSearchIndex.index(saved);
+        return saved;
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
+        String category = productRepository.findById(id).map(Product::getCategory).orElse(null);
         productRepository.deleteById(id);
+        productCache.invalidate(id, category);
+        productSearchIndex.remove(id);
     }
 
-    // Filtering with Double type minPrice and maxPrice as in test cases
-    public List<Product> getFilteredProducts(String category, Double minPrice, Double maxPrice) {
-        List<Product> allProducts = productRepository.findAll();
+    // Ranked full-text search; the index picks the ids, one IN query loads the page
+    @Transactional(readOnly = true)
+    public List<Product> searchProducts(String query, int limit) {
+        List<ProductSearchIndex.SearchHit> hits = productSearchIndex.search(query, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllById(hits.stream().map(ProductSearchIndex.SearchHit::productId).toList())) {
+            byId.put(product.getProductId(), product);
+        }
+        List<Product> ranked = new ArrayList<>(hits.size());
+        for (ProductSearchIndex.SearchHit hit : hits) {
+            Product product = byId.get(hit.productId());
+            if (product != null) {
+                ranked.add(product);
+            }
+        }
+        return ranked;
+    }
 
-        return allProducts.stream()
-                .filter(p -> category == null || p.getCategory().equalsIgnoreCase(category))
-                .filter(p -> minPrice == null || p.getPrice() >= minPrice)
-                .filter(p -> maxPrice == null || p.getPrice() <= maxPrice)
-                .toList();
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return productCache.stats();
+    }
+
+    // Filtering with Double type minPrice and maxPrice as in test cases; evaluated in the
+    // database so only the requested page is ever loaded, as listing columns only
+    @Transactional(readOnly = true)
+    public Page<ProductSummary> getFilteredProducts(String category, Double minPrice, Double maxPrice, Pageable pageable) {
+        return getFilteredProducts(category, false, minPrice, maxPrice, pageable);
+    }
+
+    // With includeSubcategories, matches products in the category or anywhere beneath it
+    @Transactional(readOnly = true)
+    public Page<ProductSummary> getFilteredProducts(String category, boolean includeSubcategories,
+                                             Double minPrice, Double maxPrice, Pageable pageable) {
+        Set<String> categories = null;
+        if (category != null && !category.isBlank()) {
+            categories = includeSubcategories ? Set.copyOf(categoryTree.subtreeNames(category)) : Set.of(category);
+        }
+        ProductCache.FilterKey key = new ProductCache.FilterKey(categories, minPrice, maxPrice, pageable);
+        return productCache.getFiltered(key, () -> productRepository.findSummaries(
+                ProductSpecifications.filter(key.categories(), minPrice, maxPrice), pageable));
     }
 }
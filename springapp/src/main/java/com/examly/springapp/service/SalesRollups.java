@@ -0,0 +1,390 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.ReadReplicas;
+import com.examly.springapp.dto.SalesReport;
+import com.examly.springapp.model.Order;
+import com.examly.springapp.model.OrderItem;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.OrderRepository.SalesRow;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Daily sales rollups of order totals and item quantities, by day, by order status and
+ * by product category. Every day is a bucket in primitive arrays (one set of arrays per
+ * status and per category), so a report costs time proportional to the days in its range
+ * and the number of groups, never to the number of orders.
+ *
+ * <p>Order writes hand in a {@link Contribution} captured before and after the change;
+ * the difference is applied once the transaction commits. Amounts are kept in cents so
+ * repeated additions and subtractions never drift. Orders without a date, or dated outside
+ * {@link #FIRST_DAY} to a year ahead, are not rolled up; without that bound one far-off
+ * date would size every series to span it. {@link #rebuild} recomputes everything from
+ * the database, for recovery after writes that bypass {@link OrderService}.
+ */
+@Service
+public class SalesRollups implements SmartInitializingSingleton {
+
+    public enum GroupBy {
+        DAY, STATUS, CATEGORY;
+
+        public static GroupBy parse(String value) {
+            for (GroupBy groupBy : values()) {
+                if (groupBy.name().equalsIgnoreCase(value)) {
+                    return groupBy;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported groupBy: " + value);
+        }
+    }
+
+    /** What one order adds to the rollups; {@code null} for an order that is not rolled up. */
+    public record Contribution(LocalDate day, int status, long revenueCents, long units,
+                               Map<String, CategoryLine> categories) {
+    }
+
+    public record CategoryLine(long units, long revenueCents) {
+    }
+
+    static final int MAX_RANGE_DAYS = 3660;
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 1);
+    static final int MAX_DAYS_AHEAD = 366;
+
+    // The statuses OrderService accepts; anything else is reported as OTHER
+    private static final List<String> STATUSES = List.of("PENDING", "SHIPPED", "DELIVERED", "CANCELLED", "OTHER");
+    private static final String UNCATEGORIZED = "UNCATEGORIZED";
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Buckets buckets = new Buckets();
+
+    public SalesRollups(OrderRepository orderRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Captures what {@code order} currently contributes. Reads the items and their
+     * products, so it must run inside the transaction that loaded the order.
+     */
+    public Contribution snapshot(Order order) {
+        if (order.getOrderDate() == null || !inWindow(order.getOrderDate().toLocalDate())) {
+            return null;
+        }
+        Map<String, CategoryLine> categories = new HashMap<>();
+        long units = 0;
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                int quantity = item.getQuantity() == null ? 0 : item.getQuantity();
+                String category = item.getProduct() == null ? null : item.getProduct().getCategory();
+                addLine(categories, category, quantity, item.getPriceAtPurchase());
+                units += quantity;
+            }
+        }
+        return new Contribution(order.getOrderDate().toLocalDate(), statusIndex(order.getStatus()),
+                cents(order.getTotalAmount()), units, categories);
+    }
+
+    /** Rejects an order date the rollups could not hold; {@code null} is allowed. */
+    public static void checkOrderDate(LocalDateTime orderDate) {
+        if (orderDate != null && !inWindow(orderDate.toLocalDate())) {
+            throw new IllegalArgumentException("orderDate must be between " + FIRST_DAY + " and "
+                    + LocalDate.now().plusDays(MAX_DAYS_AHEAD));
+        }
+    }
+
+    private static boolean inWindow(LocalDate day) {
+        return !day.isBefore(FIRST_DAY) && !day.isAfter(LocalDate.now().plusDays(MAX_DAYS_AHEAD));
+    }
+
+    public void orderAdded(Order order) {
+        orderChanged(null, order);
+    }
+
+    public void orderChanged(Contribution before, Order order) {
+        Contribution after = snapshot(order);
+        afterCommit(() -> write(b -> {
+            b.apply(before, -1);
+            b.apply(after, 1);
+        }));
+    }
+
+    public void orderRemoved(Contribution before) {
+        afterCommit(() -> write(b -> b.apply(before, -1)));
+    }
+
+    /**
+     * Recomputes the rollups from every order and swaps them in; returns the number of
+     * orders rolled up. Changes committing while the rebuild reads may be counted twice
+     * or not at all, so run it when order writes are quiet. Reads the primary, since
+     * increments applied after a replica's snapshot would otherwise be lost.
+     */
+    public synchronized long rebuild() {
+        Buckets fresh = new Buckets();
+        long[] orders = {0};
+        ReadReplicas.onPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<SalesRow> rows = orderRepository.streamSalesRows()) {
+                RowFolder folder = new RowFolder(fresh, orders);
+                rows.forEach(folder::accept);
+                folder.flush();
+            }
+        }));
+        lock.writeLock().lock();
+        try {
+            buckets = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return orders[0];
+    }
+
+    public SalesReport report(LocalDate from, LocalDate to, GroupBy groupBy) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+        lock.readLock().lock();
+        try {
+            List<SalesReport.Group> groups = switch (groupBy) {
+                case DAY -> buckets.byDay(from, to);
+                case STATUS -> buckets.grouped(STATUSES, buckets.byStatus, from, to);
+                case CATEGORY -> buckets.grouped(buckets.categoryNames, buckets.byCategory, from, to);
+            };
+            return new SalesReport(from, to, groupBy.name().toLowerCase(Locale.ROOT), groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized void write(Consumer<Buckets> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(buckets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void addLine(Map<String, CategoryLine> categories, String category, int quantity, Double price) {
+        long lineCents = price == null ? 0 : Math.round(price * quantity * 100);
+        categories.merge(category == null ? UNCATEGORIZED : category, new CategoryLine(quantity, lineCents),
+                (a, b) -> new CategoryLine(a.units() + b.units(), a.revenueCents() + b.revenueCents()));
+    }
+
+    private static int statusIndex(String status) {
+        int index = status == null ? -1 : STATUSES.indexOf(status);
+        return index < 0 ? STATUSES.size() - 1 : index;
+    }
+
+    private static long cents(Double amount) {
+        return amount == null ? 0 : Math.round(amount * 100);
+    }
+
+    /** Folds the join rows of one order at a time into a contribution. */
+    private static final class RowFolder {
+        private final Buckets target;
+        private final long[] orders;
+        private Long orderId;
+        private SalesRow first;
+        private Map<String, CategoryLine> categories = new HashMap<>();
+        private long units;
+
+        RowFolder(Buckets target, long[] orders) {
+            this.target = target;
+            this.orders = orders;
+        }
+
+        void accept(SalesRow row) {
+            if (!row.getOrderId().equals(orderId)) {
+                flush();
+                orderId = row.getOrderId();
+                first = row;
+            }
+            if (row.getQuantity() != null) {
+                addLine(categories, row.getCategory(), row.getQuantity(), row.getPriceAtPurchase());
+                units += row.getQuantity();
+            }
+        }
+
+        void flush() {
+            if (first != null && first.getOrderDate() != null && inWindow(first.getOrderDate().toLocalDate())) {
+                target.apply(new Contribution(first.getOrderDate().toLocalDate(), statusIndex(first.getStatus()),
+                        cents(first.getTotalAmount()), units, categories), 1);
+                orders[0]++;
+            }
+            first = null;
+            categories = new HashMap<>();
+            units = 0;
+        }
+    }
+
+    /** Counters for one group: index {@code day - firstDay} of each array is one day. */
+    private static final class Series {
+        private long[] orders;
+        private long[] units;
+        private long[] cents;
+
+        Series(int days) {
+            orders = new long[days];
+            units = new long[days];
+            cents = new long[days];
+        }
+
+        void add(int slot, int sign, long units, long cents) {
+            this.orders[slot] += sign;
+            this.units[slot] += sign * units;
+            this.cents[slot] += sign * cents;
+        }
+
+        // Re-lays the arrays out for a wider day range; shift is how many days were added in front
+        void resize(int days, int shift) {
+            orders = moved(orders, days, shift);
+            units = moved(units, days, shift);
+            cents = moved(cents, days, shift);
+        }
+
+        private static long[] moved(long[] values, int days, int shift) {
+            long[] resized = new long[days];
+            System.arraycopy(values, 0, resized, shift, values.length);
+            return resized;
+        }
+    }
+
+    private static final class Buckets {
+        private long firstDay;
+        private int days;
+        private final Series total;
+        private final Series[] byStatus = new Series[STATUSES.size()];
+        private final List<String> categoryNames = new ArrayList<>();
+        private final List<Series> byCategory = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+
+        Buckets() {
+            firstDay = LocalDate.now().toEpochDay() - 63;
+            days = 128;
+            total = new Series(days);
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new Series(days);
+            }
+        }
+
+        void apply(Contribution contribution, int sign) {
+            if (contribution == null) {
+                return;
+            }
+            int slot = slot(contribution.day().toEpochDay());
+            total.add(slot, sign, contribution.units(), contribution.revenueCents());
+            byStatus[contribution.status()].add(slot, sign, contribution.units(), contribution.revenueCents());
+            contribution.categories().forEach((category, line) ->
+                    category(category).add(slot, sign, line.units(), line.revenueCents()));
+        }
+
+        private Series category(String name) {
+            Integer index = categoryIndex.get(name);
+            if (index == null) {
+                index = byCategory.size();
+                categoryIndex.put(name, index);
+                categoryNames.add(name);
+                byCategory.add(new Series(days));
+            }
+            return byCategory.get(index);
+        }
+
+        // Grows the range to cover epochDay, doubling so a run of new days costs amortised O(1)
+        private int slot(long epochDay) {
+            if (epochDay < firstDay || epochDay >= firstDay + days) {
+                long start = Math.min(firstDay, epochDay);
+                long end = Math.max(firstDay + days, epochDay + 1);
+                int grown = (int) Math.max(end - start, 2L * days);
+                if (epochDay < firstDay) {
+                    start = end - grown;
+                }
+                int shift = (int) (firstDay - start);
+                total.resize(grown, shift);
+                for (Series series : byStatus) {
+                    series.resize(grown, shift);
+                }
+                for (Series series : byCategory) {
+                    series.resize(grown, shift);
+                }
+                firstDay = start;
+                days = grown;
+            }
+            return (int) (epochDay - firstDay);
+        }
+
+        List<SalesReport.Group> byDay(LocalDate from, LocalDate to) {
+            List<SalesReport.Group> groups = new ArrayList<>();
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                int slot = (int) (day.toEpochDay() - firstDay);
+                boolean inRange = slot >= 0 && slot < days;
+                groups.add(new SalesReport.Group(day.toString(),
+                        inRange ? total.orders[slot] : 0,
+                        inRange ? total.units[slot] : 0,
+                        inRange ? total.cents[slot] / 100.0 : 0));
+            }
+            return groups;
+        }
+
+        // Groups with nothing in the range are left out
+        List<SalesReport.Group> grouped(List<String> names, Series[] series, LocalDate from, LocalDate to) {
+            return grouped(names, Arrays.asList(series), from, to);
+        }
+
+        List<SalesReport.Group> grouped(List<String> names, List<Series> series, LocalDate from, LocalDate to) {
+            int start = (int) Math.max(from.toEpochDay() - firstDay, 0);
+            int end = (int) Math.min(to.toEpochDay() - firstDay, days - 1);
+            List<SalesReport.Group> groups = new ArrayList<>();
+            for (int g = 0; g < series.size(); g++) {
+                Series s = series.get(g);
+                long orders = 0;
+                long units = 0;
+                long cents = 0;
+                for (int slot = start; slot <= end; slot++) {
+                    orders += s.orders[slot];
+                    units += s.units[slot];
+                    cents += s.cents[slot];
+                }
+                if (orders != 0 || units != 0 || cents != 0) {
+                    groups.add(new SalesReport.Group(names.get(g), orders, units, cents / 100.0));
+                }
+            }
+            return groups;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.repository.ProductRepository;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Returns the stock of a cancelled order to its products. The order's
+ * {@code stockReleased} flag is claimed with a conditional UPDATE in the same
+ * transaction as the increments, so retries and repeated cancellations release once.
+ */
+@Component
+@Order(10)
+public class StockReleaseStage implements FulfilmentStage {
+
+    private final ProductRepository productRepository;
+    private final StockReservationEngine stockReservationEngine;
+    private final ProductCache productCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockReleaseStage(ProductRepository productRepository,
+                             StockReservationEngine stockReservationEngine,
+                             ProductCache productCache,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.stockReservationEngine = stockReservationEngine;
+        this.productCache = productCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String name() {
+        return "stock-release";
+    }
+
+    @Override
+    public boolean appliesTo(FulfilmentEvent event) {
+        return event.isTransitionTo("CANCELLED");
+    }
+
+    @Override
+    public void handle(FulfilmentEvent event) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int claimed = jdbcTemplate.update(
+                    "update orders set stock_released = true where id = ? and stock_released = false",
+                    event.orderId());
+            if (claimed == 0) {
+                return;
+            }
+            Map<Long, Integer> quantities = new HashMap<>();
+            jdbcTemplate.query("select product_id, sum(quantity) from order_item where order_id = ? group by product_id",
+                    rs -> {
+                        quantities.put(rs.getLong(1), rs.getInt(2));
+                    }, event.orderId());
+            productRepository.incrementStock(quantities);
+            productCache.invalidate(quantities.keySet(), null);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    quantities.forEach(stockReservationEngine::stockChanged);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.examly.springapp.service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grants stock for order placement. Implementations must never grant more units than
+ * are available, and must release whatever they granted if the surrounding
+ * transaction rolls back.
+ */
+public interface StockReservationEngine {
+
+    /**
+     * Reserves {@code quantities} (productId to units) inside the current transaction.
+     * The caller must roll back when the result has rejected products.
+     */
+    Result reserve(Map<Long, Integer> quantities);
+
+    /**
+     * Tells the engine that a product's stock was changed outside order placement
+     * (for example an admin edit), by {@code delta} units, after that change committed.
+     */
+    void stockChanged(Long productId, int delta);
+
+    /**
+     * @param rejected products that did not have enough stock
+     * @param deferred products whose stock was granted in memory; their order items must be
+     *                 journaled with {@code stockPending} so the decrement is written behind
+     */
+    record Result(Set<Long> rejected, Set<Long> deferred) {
+
+        public boolean isRejected() {
+            return !rejected.isEmpty();
+        }
+    }
+}
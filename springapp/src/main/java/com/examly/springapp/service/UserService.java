@@ -4,8 +4,11 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.examly.springapp.dto.CursorPage;
 import com.examly.springapp.model.User;
 
 import java.util.List;
@@ -27,8 +30,12 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<User> getAllUsers(Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<User> rows = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, User::getUserId);
     }
 
     public Optional<User> getUserById(Long id) {
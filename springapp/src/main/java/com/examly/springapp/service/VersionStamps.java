@@ -0,0 +1,99 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.ReadReplicas;
+import com.examly.springapp.model.Product;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cheap validators for conditional requests. Each table has a modification counter that
+ * writers bump once their change is committed, so a collection's ETag can be compared
+ * against {@code If-None-Match} without loading or serializing anything. The counters
+ * live in memory; the startup time is part of every tag, so tags handed out before a
+ * restart (or by another instance) never match. Single products and orders are tagged by
+ * their own {@code lastModified} instead, so a write only invalidates the row it touched;
+ * a product's tag is also what {@code If-Match} is checked against.
+ */
+@Component
+public class VersionStamps {
+
+    public enum Table {
+        PRODUCTS, CATEGORIES
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray counters = new AtomicLongArray(Table.values().length);
+    private final ObjectProvider<ReadReplicas> readReplicas;
+
+    public VersionStamps(ObjectProvider<ReadReplicas> readReplicas) {
+        this.readReplicas = readReplicas;
+    }
+
+    /**
+     * Moves the given tables to a new version. Inside a transaction this waits for the
+     * commit, so a tag read before the commit cannot end up on the post-commit state.
+     * With read replicas the tables move again once no replica can still serve the old
+     * rows, so a tag handed out with a stale body does not stay valid.
+     */
+    public void bump(Table... tables) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    moved(tables);
+                }
+            });
+        } else {
+            moved(tables);
+        }
+    }
+
+    private void moved(Table... tables) {
+        increment(tables);
+        readReplicas.ifAvailable(replicas -> replicas.repeatAfterStalenessBound(() -> increment(tables)));
+    }
+
+    private void increment(Table... tables) {
+        for (Table table : tables) {
+            counters.incrementAndGet(table.ordinal());
+        }
+    }
+
+    /** Strong ETag over the current versions of the given tables; read it before loading the data. */
+    public String etag(Table... tables) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch);
+        for (Table table : tables) {
+            tag.append('-').append(Long.toString(counters.get(table.ordinal()), 36));
+        }
+        return tag.append('"').toString();
+    }
+
+    /** Strong ETag of a single product, derived from its id and {@code lastModified}. */
+    public static String etag(Product product) {
+        return etag(product.getProductId(), product.getLastModified());
+    }
+
+    /** Strong ETag of a single row, derived from its id and last modification time. */
+    public static String etag(Long id, LocalDateTime modified) {
+        long micros = modified == null ? 0
+                : modified.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + modified.getNano() / 1_000;
+        return "\"" + id + "-" + Long.toString(micros, 36) + "\"";
+    }
+
+    /**
+     * Whether an {@code If-Match} header value matches the given strong ETag. Weak tags
+     * never match, as strong comparison requires; {@code *} matches any current version.
+     */
+    public static boolean matches(String ifMatch, String etag) {
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag));
+    }
+}
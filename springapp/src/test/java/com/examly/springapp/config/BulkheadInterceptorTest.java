@@ -0,0 +1,109 @@
+package com.examly.springapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadInterceptorTest {
+
+    static class Handlers {
+        @Bulkhead("test")
+        public void guarded() {
+        }
+
+        public void unguarded() {
+        }
+    }
+
+    private static AdaptiveLimiter limiter(int initialLimit, Duration latencyTarget, int maxQueue, Duration queueTimeout) {
+        return new AdaptiveLimiter(new AdaptiveLimiter.Settings(
+                initialLimit, 1, 10, latencyTarget, 0.5, maxQueue, queueTimeout));
+    }
+
+    @Test
+    void config_adaptiveLimiterAimdTest() throws Exception {
+        AdaptiveLimiter fast = limiter(2, Duration.ofHours(1), 0, Duration.ZERO);
+        AdaptiveLimiter.Permit first = fast.acquire();
+        AdaptiveLimiter.Permit second = fast.acquire();
+        assertNull(fast.acquire());
+        // Within the target while at least half the limit is in use: one more slot
+        first.release(false);
+        assertEquals(3.0, fast.limit());
+        second.release(false);
+        assertEquals(3.0, fast.limit());
+
+        AdaptiveLimiter slow = limiter(8, Duration.ZERO, 0, Duration.ZERO);
+        slow.acquire().release(false);
+        assertEquals(4.0, slow.limit());
+        AdaptiveLimiter.Permit failed = slow.acquire();
+        failed.release(true);
+        // Releasing twice changes nothing
+        failed.release(true);
+        assertEquals(2.0, slow.limit());
+    }
+
+    @Test
+    void config_adaptiveLimiterQueueTest() throws Exception {
+        AdaptiveLimiter limiter = limiter(1, Duration.ofHours(1), 1, Duration.ofSeconds(10));
+        AdaptiveLimiter.Permit held = limiter.acquire();
+        CompletableFuture<AdaptiveLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        while (limiter.queued() == 0) {
+            Thread.sleep(1);
+        }
+        // The queue holds one request, so a third is shed at once
+        assertNull(limiter.acquire());
+        held.release(false);
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.inFlight());
+
+        AdaptiveLimiter expiring = limiter(1, Duration.ofHours(1), 1, Duration.ofMillis(20));
+        expiring.acquire();
+        assertNull(expiring.acquire());
+        assertEquals(0, expiring.queued());
+    }
+
+    @Test
+    void config_bulkheadInterceptorShedsWith503Test() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BulkheadInterceptor interceptor = new BulkheadInterceptor(new MockEnvironment()
+                .withProperty("bulkhead.test.initial-limit", "1")
+                .withProperty("bulkhead.test.max-queue", "0"), meterRegistry);
+        HandlerMethod guarded = new HandlerMethod(new Handlers(), Handlers.class.getMethod("guarded"));
+        HandlerMethod unguarded = new HandlerMethod(new Handlers(), Handlers.class.getMethod("unguarded"));
+
+        MockHttpServletRequest admitted = new MockHttpServletRequest("POST", "/api/orders");
+        MockHttpServletResponse admittedResponse = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(admitted, admittedResponse, guarded));
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/orders"), shed, guarded));
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(shed.getContentAsString().contains("\"message\""));
+        // Other handlers are not affected
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/products"),
+                new MockHttpServletResponse(), unguarded));
+
+        interceptor.afterCompletion(admitted, admittedResponse, guarded, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/orders"),
+                new MockHttpServletResponse(), guarded));
+        assertEquals(1.0, meterRegistry.get("bulkhead.requests").tag("outcome", "shed").counter().count());
+        assertEquals(2.0, meterRegistry.get("bulkhead.requests").tag("outcome", "admitted").counter().count());
+    }
+}
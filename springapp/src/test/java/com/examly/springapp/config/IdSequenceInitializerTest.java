@@ -0,0 +1,46 @@
+package com.examly.springapp.config;
+
+import com.examly.springapp.model.Order;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class IdSequenceInitializerTest {
+    @Autowired
+    private IdSequenceInitializer initializer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void config_sequencesMovePastExistingIds() {
+        // Rows left behind by the IDENTITY columns, with ids the fresh sequences would reach
+        jdbcTemplate.update("insert into orders (id, stock_released) values (40, false)");
+        jdbcTemplate.update("insert into product (product_id, name, description, category, price, stock_quantity, is_active) "
+                + "values (7, 'Old', 'Old', 'Home', 1.0, 1, true)");
+
+        initializer.afterSingletonsInstantiated();
+        Order order = orderRepository.save(Order.builder().customerName("New").build());
+        Product product = productRepository.save(Product.builder().name("New").description("New")
+                .price(1.0).category("Home").stockQuantity(1).build());
+        assertTrue(order.getId() > 40, "order id " + order.getId());
+        assertTrue(product.getProductId() > 7, "product id " + product.getProductId());
+
+        // A second run (restart, another instance) leaves the sequences where they are
+        initializer.afterSingletonsInstantiated();
+        Order next = orderRepository.save(Order.builder().customerName("Next").build());
+        assertTrue(next.getId() > order.getId());
+    }
+}
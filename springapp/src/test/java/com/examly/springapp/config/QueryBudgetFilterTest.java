@@ -0,0 +1,89 @@
+package com.examly.springapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryBudgetFilterTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    static class Handlers {
+        @QueryBudget(2)
+        public void budgeted() {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new StatementCountingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1", "sa", "")));
+        jdbcTemplate.execute("create table if not exists thing (id int)");
+    }
+
+    private MockHttpServletRequest request() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/things");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Handlers(), Handlers.class.getMethod("budgeted")));
+        return request;
+    }
+
+    private QueryBudgetFilter filter() {
+        return new QueryBudgetFilter("fail", new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void config_queryBudgetWithinBudgetTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(request(), response, (req, res) -> {
+            jdbcTemplate.queryForObject("select 1", Integer.class);
+            // A batch is one round trip and counts once
+            jdbcTemplate.batchUpdate("insert into thing (id) values (?)", List.of(new Object[]{1}, new Object[]{2}));
+            res.getWriter().write("[]");
+        });
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void config_queryBudgetExceededTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        QueryBudgetExceededException ex = assertThrows(QueryBudgetExceededException.class, () ->
+                filter().doFilter(request(), response, (req, res) -> {
+                    for (int i = 0; i < 3; i++) {
+                        jdbcTemplate.queryForObject("select 1", Integer.class);
+                    }
+                    res.setContentType("application/json");
+                    res.getWriter().write("[]");
+                    res.flushBuffer();
+                }));
+        assertTrue(ex.getMessage().contains("executed 3 SQL statements"), ex.getMessage());
+        // The body was held back, so the failure can still become an error response
+        assertFalse(response.isCommitted());
+        assertEquals("", response.getContentAsString());
+        assertNull(response.getContentType());
+        // Statements outside a request are not counted and not left on the thread
+        assertNull(SqlStatementStats.end());
+    }
+
+    @Test
+    void config_queryBudgetStreamsUnbudgetedResponsesTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(new MockHttpServletRequest("GET", "/api/stream"), response, (req, res) -> {
+            res.getWriter().write("{}\n");
+            res.flushBuffer();
+            // Without a budget nothing is held back
+            assertEquals("{}\n", response.getContentAsString());
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.examly.springapp.config;
+
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two H2 databases stand in for primary and replica; "replication" is a script copy
+@SpringBootTest(properties = {
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.lag-check-interval-ms=3600000",
+        "product.cache.filter-max-size=0"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ReadReplicaRoutingTest {
+
+    private static final String SNAPSHOT = "target/replica-snapshot.sql";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ReadReplicas readReplicas;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate replica = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        replica.execute("drop all objects");
+        readReplicas.checkLag();
+    }
+
+    private void replicate() {
+        new JdbcTemplate(readReplicas.primary()).execute("script to '" + SNAPSHOT + "'");
+        replica.execute("drop all objects");
+        replica.execute("runscript from '" + SNAPSHOT + "'");
+        readReplicas.checkLag();
+    }
+
+    // Startup snapshot rebuilds count too, so tests compare against a baseline
+    private double reads(String target, String reason) {
+        var counter = meterRegistry.find("datasource.routing.reads").tag("target", target).tag("reason", reason)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void config_readReplicaServesReadOnlyTransactionsTest() throws Exception {
+        Product lamp = productRepository.save(Product.builder()
+                .name("Lamp").description("Desk lamp").price(25.0).category("Home").stockQuantity(4).build());
+        replicate();
+        new JdbcTemplate(readReplicas.primary())
+                .update("update product set price = 30 where product_id = ?", lamp.getProductId());
+        double before = reads("replica-1", "replica");
+
+        // The listing runs in a read-only transaction, so it sees the replica's older copy
+        mockMvc.perform(get("/api/products?category=Home"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].price").value(25.0));
+        assertEquals(before + 1, reads("replica-1", "replica"));
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "replica-1").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "primary").gauge());
+    }
+
+    @Test
+    void config_readReplicaLaggingFallsBackToPrimaryTest() throws Exception {
+        Product lamp = productRepository.save(Product.builder()
+                .name("Lamp").description("Desk lamp").price(25.0).category("Home").stockQuantity(4).build());
+        replicate();
+        new JdbcTemplate(readReplicas.primary())
+                .update("update product set price = 30 where product_id = ?", lamp.getProductId());
+        // The replica stopped applying changes a minute ago
+        replica.update("update replica_heartbeat set beat_at = beat_at - 60000");
+        readReplicas.checkLag();
+        double before = reads("primary", "fallback");
+
+        mockMvc.perform(get("/api/products?category=Home"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].price").value(30.0));
+        assertEquals(before + 1, reads("primary", "fallback"));
+        assertNull(meterRegistry.find("datasource.routing.reads").tag("target", "replica-1").counter());
+        assertTrue(meterRegistry.get("datasource.replica.lag").tag("pool", "replica-1").gauge().value() >= 60);
+    }
+
+    @Test
+    void config_readReplicaPinnedReadsUsePrimaryTest() {
+        productRepository.save(Product.builder()
+                .name("Lamp").description("Desk lamp").price(25.0).category("Home").stockQuantity(4).build());
+        replicate();
+        replica.update("delete from product");
+        double before = reads("primary", "pinned");
+
+        assertEquals(0, productRepository.findAll().size());
+        assertEquals(1, ReadReplicas.onPrimary(() -> productRepository.findAll()).size());
+        assertEquals(before + 1, reads("primary", "pinned"));
+    }
+}
@@ -0,0 +1,145 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.Order;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class AnalyticsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product phone;
+    private Product mug;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        phone = Product.builder().name("Phone").description("Phone").price(100.0).category("Electronics").stockQuantity(10).build();
+        mug = Product.builder().name("Mug").description("Mug").price(5.0).category("Kitchen").stockQuantity(10).build();
+        productRepository.saveAll(List.of(phone, mug));
+    }
+
+    private Long placeOrder(List<Map<String, Object>> items) throws Exception {
+        String response = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "customerName", "Dana",
+                        "customerEmail", "dana@example.com",
+                        "shippingAddress", "5 Market St",
+                        "orderItems", items))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, Order.class).getId();
+    }
+
+    @Test
+    void controller_analyticsControllerSalesRollupsTest() throws Exception {
+        String today = LocalDate.now().toString();
+        Long first = placeOrder(List.of(Map.of("productId", phone.getProductId(), "quantity", 2)));
+        Long second = placeOrder(List.of(
+                Map.of("productId", phone.getProductId(), "quantity", 1),
+                Map.of("productId", mug.getProductId(), "quantity", 3)));
+        mockMvc.perform(patch("/api/orders/" + second + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"SHIPPED\"}"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/analytics/sales").param("from", today).param("to", today).param("groupBy", "status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.groupBy").value("status"))
+            .andExpect(jsonPath("$.groups", hasSize(2)))
+            .andExpect(jsonPath("$.groups[0].key").value("PENDING"))
+            .andExpect(jsonPath("$.groups[0].orders").value(1))
+            .andExpect(jsonPath("$.groups[0].units").value(2))
+            .andExpect(jsonPath("$.groups[0].revenue", is(closeTo(200.0, 0.001))))
+            .andExpect(jsonPath("$.groups[1].key").value("SHIPPED"))
+            .andExpect(jsonPath("$.groups[1].units").value(4))
+            .andExpect(jsonPath("$.groups[1].revenue", is(closeTo(115.0, 0.001))));
+
+        mockMvc.perform(get("/api/analytics/sales").param("from", today).param("to", today).param("groupBy", "category"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.groups[?(@.key == 'Electronics')].orders", contains(2)))
+            .andExpect(jsonPath("$.groups[?(@.key == 'Electronics')].revenue", contains(closeTo(300.0, 0.001))))
+            .andExpect(jsonPath("$.groups[?(@.key == 'Kitchen')].units", contains(3)))
+            .andExpect(jsonPath("$.groups[?(@.key == 'Kitchen')].revenue", contains(closeTo(15.0, 0.001))));
+
+        mockMvc.perform(delete("/api/orders/" + first)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/analytics/sales").param("from", today).param("to", today))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.groups", hasSize(1)))
+            .andExpect(jsonPath("$.groups[0].key").value(today))
+            .andExpect(jsonPath("$.groups[0].orders").value(1))
+            .andExpect(jsonPath("$.groups[0].revenue", is(closeTo(115.0, 0.001))));
+
+        // A rebuild from the database reproduces the incrementally maintained totals
+        mockMvc.perform(post("/api/analytics/sales/rebuild"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders").value(1));
+        mockMvc.perform(get("/api/analytics/sales").param("from", today).param("to", today).param("groupBy", "category"))
+            .andExpect(jsonPath("$.groups[?(@.key == 'Electronics')].orders", contains(1)))
+            .andExpect(jsonPath("$.groups[?(@.key == 'Electronics')].revenue", contains(closeTo(100.0, 0.001))))
+            .andExpect(jsonPath("$.groups[?(@.key == 'Kitchen')].units", contains(3)));
+    }
+
+    @Test
+    void controller_analyticsControllerRejectsInvalidRangeTest() throws Exception {
+        mockMvc.perform(get("/api/analytics/sales").param("groupBy", "week"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unsupported groupBy: week"));
+        mockMvc.perform(get("/api/analytics/sales").param("from", "2024-02-01").param("to", "2024-01-01"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void controller_analyticsControllerIgnoresOutOfWindowDatesTest() throws Exception {
+        Long id = placeOrder(List.of(Map.of("productId", mug.getProductId(), "quantity", 1)));
+        Map<String, Object> update = Map.of(
+                "customerName", "Dana",
+                "customerEmail", "dana@example.com",
+                "shippingAddress", "5 Market St",
+                "status", "PENDING",
+                "orderDate", "0001-01-01T00:00:00");
+        mockMvc.perform(put("/api/orders/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value(startsWith("orderDate must be between 2000-01-01")));
+
+        // Rows written around the service are skipped by a rebuild instead of sizing the rollups to span them
+        orderRepository.save(Order.builder().customerName("Eve").customerEmail("eve@example.com")
+                .shippingAddress("6 Market St").status("PENDING").totalAmount(1.0)
+                .orderDate(LocalDateTime.of(9999, 12, 31, 0, 0)).build());
+        mockMvc.perform(post("/api/analytics/sales/rebuild"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders").value(1));
+    }
+}
@@ -0,0 +1,97 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.Inventory;
+import com.examly.springapp.repository.InventoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class InventoryControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.deleteAll();
+        inventoryRepository.saveAll(List.of(new Inventory(1L, 10), new Inventory(2L, 20), new Inventory(3L, 30)));
+    }
+
+    private int quantityOf(long productId) {
+        return inventoryRepository.findByProductId(productId).getQuantity();
+    }
+
+    @Test
+    void controller_inventoryControllerBulkUpdateTest() throws Exception {
+        List<Map<String, Object>> body = List.of(
+                Map.of("productId", 2, "quantity", 5),
+                Map.of("productId", 1, "delta", -4),
+                Map.of("productId", 99, "delta", 1),
+                Map.of("productId", 3, "delta", 7),
+                Map.of("productId", 3, "delta", 3));
+        mockMvc.perform(put("/api/inventory/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.requested").value(5))
+            .andExpect(jsonPath("$.updated").value(4))
+            .andExpect(jsonPath("$.notFound", contains(99)));
+
+        assertEquals(6, quantityOf(1));
+        assertEquals(5, quantityOf(2));
+        assertEquals(40, quantityOf(3));
+    }
+
+    @Test
+    void controller_inventoryControllerBulkUpdateRejectsAmbiguousLinesTest() throws Exception {
+        List<Map<String, Object>> body = List.of(
+                Map.of("productId", 1, "delta", 1),
+                Map.of("productId", 2, "quantity", 1, "delta", 1));
+        mockMvc.perform(put("/api/inventory/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value(containsString("Exactly one of quantity or delta")));
+
+        // Validation happens before any row changes
+        assertEquals(10, quantityOf(1));
+    }
+
+    @Test
+    void controller_inventoryControllerBulkUpdateRejectsNegativeResultTest() throws Exception {
+        List<Map<String, Object>> body = List.of(
+                Map.of("productId", 2, "quantity", 5),
+                Map.of("productId", 1, "delta", -6),
+                Map.of("productId", 1, "delta", -6),
+                Map.of("productId", 3, "delta", -1));
+        mockMvc.perform(put("/api/inventory/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Insufficient inventory for products [1]"));
+
+        // The lines that did apply are rolled back with the rest of the batch
+        assertEquals(10, quantityOf(1));
+        assertEquals(20, quantityOf(2));
+        assertEquals(30, quantityOf(3));
+    }
+}
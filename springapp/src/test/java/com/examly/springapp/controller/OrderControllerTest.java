@@ -2,23 +2,31 @@ package com.examly.springapp.controller;
 
 import com.examly.springapp.model.*;
 import com.examly.springapp.repository.*;
+import com.examly.springapp.support.SqlStatementRecorder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.annotation.DirtiesContext;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 public class OrderControllerTest {
     @Autowired
@@ -105,8 +113,8 @@ public class OrderControllerTest {
 
         // Check stock update
         Optional<Product> p = productRepository.findById(product1.getId());
-        assert(p.isPresent());
-        assert(p.get().getStockQuantity() == 8);
+        assertTrue(p.isPresent());
+        assertEquals(8, p.get().getStockQuantity());
     }
 
     @Test
@@ -144,4 +152,164 @@ public class OrderControllerTest {
             .andExpect(status().isNotFound())
             .andExpect(jsonPath("$.message").value("Order not found"));
     }
+
+    @Test
+    void controller_orderControllerCursorPaginationTest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            orderRepository.save(Order.builder().customerName("C" + i).customerEmail("c@x.com")
+                    .shippingAddress("Addr").status("PENDING").totalAmount(1.0).build());
+        }
+        String first = mockMvc.perform(get("/api/orders?limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].customerName").value("C0"))
+                .andExpect(jsonPath("$.nextCursor").isNumber())
+                .andReturn().getResponse().getContentAsString();
+        long cursor = objectMapper.readTree(first).get("nextCursor").asLong();
+
+        mockMvc.perform(get("/api/orders?limit=2&after=" + cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].customerName").value("C2"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void controller_orderControllerExportTest() throws Exception {
+        orderRepository.save(Order.builder().customerName("Ann").customerEmail("ann@x.com")
+                .shippingAddress("1 Road").status("PENDING").totalAmount(12.5).build());
+        orderRepository.save(Order.builder().customerName("Ben").customerEmail("ben@x.com")
+                .shippingAddress("2 Road").status("SHIPPED").totalAmount(7.0).build());
+
+        MvcResult ndjson = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Ann", objectMapper.readTree(lines[0]).get("customerName").asText());
+        assertEquals("SHIPPED", objectMapper.readTree(lines[1]).get("status").asText());
+
+        MvcResult csv = mockMvc.perform(get("/api/orders/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csvBody = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] rows = csvBody.split("\n");
+        assertEquals(3, rows.length);
+        assertTrue(rows[0].startsWith("id,customerName,customerEmail"), rows[0]);
+        assertTrue(rows[2].contains("Ben"), rows[2]);
+
+        mockMvc.perform(get("/api/orders/export?format=xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported export format"));
+    }
+
+    @Test
+    void controller_orderControllerListStatementCountTest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Order order = Order.builder().customerName("C" + i).customerEmail("c@x.com")
+                    .shippingAddress("Addr").status("PENDING").totalAmount(400.0).orderItems(new ArrayList<>()).build();
+            order.getOrderItems().add(OrderItem.builder().order(order).product(product1).quantity(1).priceAtPurchase(100.0).build());
+            order.getOrderItems().add(OrderItem.builder().order(order).product(product2).quantity(1).priceAtPurchase(300.0).build());
+            orderRepository.save(order);
+        }
+
+        SqlStatementRecorder.reset();
+        mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(5)))
+                .andExpect(jsonPath("$.items[4].orderItems", hasSize(2)))
+                .andExpect(jsonPath("$.items[4].orderItems[1].productId").value(product2.getId()));
+        // One id seek plus one graph fetch, independent of the number of orders and items
+        assertEquals(2, SqlStatementRecorder.statements().size(), SqlStatementRecorder.statements().toString());
+
+        Long id = orderRepository.findAll().get(0).getId();
+        SqlStatementRecorder.reset();
+        mockMvc.perform(get("/api/orders/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems", hasSize(2)));
+        // The ETag stamp plus one graph fetch
+        assertEquals(2, SqlStatementRecorder.statements().size(), SqlStatementRecorder.statements().toString());
+    }
+
+    @Test
+    void controller_orderControllerConditionalGetTest() throws Exception {
+        Order first = orderRepository.save(Order.builder().customerName("Ann").customerEmail("ann@x.com")
+                .shippingAddress("1 Road").status("PENDING").totalAmount(12.5).orderDate(LocalDateTime.now()).build());
+        Order second = orderRepository.save(Order.builder().customerName("Ben").customerEmail("ben@x.com")
+                .shippingAddress("2 Road").status("PENDING").totalAmount(7.0).orderDate(LocalDateTime.now()).build());
+        String etag = mockMvc.perform(get("/api/orders/" + first.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementRecorder.reset();
+        mockMvc.perform(get("/api/orders/" + first.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(1, SqlStatementRecorder.statements().size(), SqlStatementRecorder.statements().toString());
+
+        // A write to another order leaves this order's tag alone
+        mockMvc.perform(patch("/api/orders/" + second.getId() + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("status", "SHIPPED"))))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/" + first.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/orders/" + first.getId() + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("status", "SHIPPED"))))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/" + first.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.status").value("SHIPPED"));
+
+        // An unknown id is 404 even when the client sends a tag
+        mockMvc.perform(get("/api/orders/99999").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void controller_orderControllerMetricsScrapeTest() throws Exception {
+        var orderPayload = Map.of(
+            "customerName", "Ivy",
+            "customerEmail", "ivy@example.com",
+            "shippingAddress", "12 Lane",
+            "orderItems", List.of(Map.of("productId", product1.getId(), "quantity", 1))
+        );
+        String response = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orderPayload)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(response, Order.class).getId();
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                    "customerName", "Ivy",
+                    "customerEmail", "ivy@example.com",
+                    "shippingAddress", "12 Lane",
+                    "orderItems", List.of(Map.of("productId", product2.getId(), "quantity", 50))))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/orders/" + id + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("status", "SHIPPED"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("orders_placed_total 1.0")))
+                .andExpect(content().string(containsString("orders_stock_rejected_total 1.0")))
+                .andExpect(content().string(containsString(
+                        "orders_status_transitions_total{from=\"PENDING\",to=\"SHIPPED\"} 1.0")))
+                .andExpect(content().string(containsString("handler=\"OrderController.createOrder\"")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString(
+                        "spring_data_repository_invocations_seconds_bucket{exception=\"None\",method=\"findAllById\",repository=\"ProductRepository\"")));
+    }
 }
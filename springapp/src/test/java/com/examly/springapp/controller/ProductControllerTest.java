@@ -2,12 +2,14 @@ package com.examly.springapp.controller;
 
 import com.examly.springapp.model.Product;
 import com.examly.springapp.repository.ProductRepository;
+import com.examly.springapp.support.SqlStatementRecorder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.annotation.DirtiesContext;
@@ -15,6 +17,8 @@ import org.springframework.test.annotation.DirtiesContext;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -98,22 +102,212 @@ public class ProductControllerTest {
         // Filter by category
         mockMvc.perform(get("/api/products?category=Electronics"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(2)));
+            .andExpect(jsonPath("$.content", hasSize(2)));
 
         // Min price
         mockMvc.perform(get("/api/products?minPrice=50"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(2)));
+            .andExpect(jsonPath("$.content", hasSize(2)));
 
         // Max price
         mockMvc.perform(get("/api/products?maxPrice=150"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(2)));
+            .andExpect(jsonPath("$.content", hasSize(2)));
 
         // Category + min + max
         mockMvc.perform(get("/api/products?category=Electronics&minPrice=150&maxPrice=250"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].name").value("TV"));
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].name").value("TV"));
+
+        // Paged and sorted
+        mockMvc.perform(get("/api/products?page=0&size=2&sort=price,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].name").value("TV"))
+            .andExpect(jsonPath("$.page.totalElements").value(3))
+            .andExpect(jsonPath("$.page.totalPages").value(2));
+    }
+
+    @Test
+    void controller_productControllerCacheInvalidationTest() throws Exception {
+        Product saved = productRepository.save(Product.builder()
+                .name("Lamp").description("Desk lamp").price(25.0).category("Home").stockQuantity(4).build());
+
+        mockMvc.perform(get("/api/products/" + saved.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.price").value(25.0));
+        mockMvc.perform(get("/api/products/" + saved.getId()))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products?category=Home"))
+            .andExpect(jsonPath("$.content[0].price").value(25.0));
+        mockMvc.perform(get("/api/products/cache/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.byId.hitCount").value(1))
+            .andExpect(jsonPath("$.byId.missCount").value(1));
+
+        saved.setPrice(30.0);
+        mockMvc.perform(put("/api/products/" + saved.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(saved)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + saved.getId()))
+            .andExpect(jsonPath("$.price").value(30.0));
+        mockMvc.perform(get("/api/products?category=Home"))
+            .andExpect(jsonPath("$.content[0].price").value(30.0));
+    }
+
+    @Test
+    void controller_productControllerBulkImportCsvTest() throws Exception {
+        String csv = """
+                name,description,price,category,stockQuantity,sku
+                Kettle,Electric kettle,30.5,Kitchen,12,K-1
+                ,Missing name,10,Kitchen,1,K-2
+                Toaster,Two slots,not-a-price,Kitchen,3,K-3
+                Blender,Glass jug,55,Kitchen,7,K-4
+                """;
+        mockMvc.perform(post("/api/products/bulk")
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(4))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(2))
+            .andExpect(jsonPath("$.errors[0].row").value(2))
+            .andExpect(jsonPath("$.errors[0].sku").value("K-2"))
+            .andExpect(jsonPath("$.errors[0].messages[0]").value(startsWith("name:")))
+            .andExpect(jsonPath("$.errors[1].row").value(3))
+            .andExpect(jsonPath("$.errors[1].messages[0]").value(startsWith("Malformed row")));
+
+        mockMvc.perform(get("/api/products?category=Kitchen"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].name", containsInAnyOrder("Kettle", "Blender")));
+    }
+
+    @Test
+    void controller_productControllerBulkImportNdjsonTest() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            body.append(objectMapper.writeValueAsString(Product.builder().name("Item " + i).description("Bulk")
+                    .price(1.0 + i).category("Bulk").stockQuantity(i).sku("B-" + i).build())).append('\n');
+        }
+        body.append("{not json}\n");
+        mockMvc.perform(post("/api/products/bulk")
+                .contentType("application/x-ndjson")
+                .content(body.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(2501))
+            .andExpect(jsonPath("$.imported").value(2500))
+            .andExpect(jsonPath("$.errors[0].row").value(2501));
+
+        assertEquals(2500, productRepository.count());
+    }
+
+    @Test
+    void controller_productControllerSearchTest() throws Exception {
+        for (String name : List.of("Wireless Mouse", "Mouse Pad", "Mechanical Keyboard")) {
+            mockMvc.perform(post("/api/products")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(Product.builder().name(name).description(name)
+                            .price(10.0).category("Electronics").stockQuantity(1).build())))
+                .andExpect(status().isCreated());
+        }
+        mockMvc.perform(get("/api/products/search").param("q", "mous pad"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Mouse Pad"))
+            .andExpect(jsonPath("$[1].name").value("Wireless Mouse"))
+            .andExpect(jsonPath("$.length()").value(2));
+
+        Long keyboardId = productRepository.findAll().stream()
+                .filter(p -> p.getName().startsWith("Mechanical")).findFirst().orElseThrow().getProductId();
+        mockMvc.perform(delete("/api/products/" + keyboardId)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products/search").param("q", "keyboard"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void controller_productControllerConditionalGetTest() throws Exception {
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Product.builder().name("Lamp").description("Desk lamp")
+                        .price(25.0).category("Home").stockQuantity(4).build())))
+            .andExpect(status().isCreated());
+        String etag = mockMvc.perform(get("/api/products?category=Home"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementRecorder.reset();
+        mockMvc.perform(get("/api/products?category=Home").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        assertTrue(SqlStatementRecorder.statements().isEmpty());
+
+        Product lamp = productRepository.findAll().get(0);
+        lamp.setPrice(30.0);
+        mockMvc.perform(put("/api/products/" + lamp.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lamp)))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products?category=Home").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+            .andExpect(jsonPath("$.content[0].price").value(30.0));
+    }
+
+    @Test
+    void controller_productControllerIfMatchTest() throws Exception {
+        Product saved = productRepository.save(Product.builder()
+                .name("Lamp").description("Desk lamp").price(25.0).category("Home").stockQuantity(4).build());
+        String etag = mockMvc.perform(get("/api/products/" + saved.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/products/" + saved.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        saved.setPrice(30.0);
+        String updatedEtag = mockMvc.perform(put("/api/products/" + saved.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(saved)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A second writer still holding the first tag loses
+        saved.setPrice(35.0);
+        mockMvc.perform(put("/api/products/" + saved.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(saved)))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.message").exists());
+        mockMvc.perform(get("/api/products/" + saved.getId()))
+            .andExpect(header().string(HttpHeaders.ETAG, updatedEtag))
+            .andExpect(jsonPath("$.price").value(30.0));
+        assertEquals(30.0, productRepository.findById(saved.getId()).orElseThrow().getPrice());
+    }
+
+    @Test
+    void controller_productControllerListProjectionTest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            productRepository.save(Product.builder().name("Lamp " + i).description("Desk lamp").price(25.0 + i)
+                    .category("Home").stockQuantity(4).dimensions("10x10x30").build());
+        }
+
+        SqlStatementRecorder.reset();
+        mockMvc.perform(get("/api/products?category=Home&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].name").value("Lamp 0"))
+            .andExpect(jsonPath("$.content[0].stockQuantity").value(4))
+            .andExpect(jsonPath("$.content[0].dimensions").doesNotExist())
+            .andExpect(jsonPath("$.page.totalElements").value(3));
+        // Page and count only; the owner is never joined
+        List<String> statements = SqlStatementRecorder.statements();
+        assertEquals(2, statements.size(), statements.toString());
+        assertTrue(statements.stream().noneMatch(sql -> sql.contains("users")), statements.toString());
     }
 }
@@ -0,0 +1,114 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.Category;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.CategoryRepository;
+import com.examly.springapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ReactiveCatalogControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productRepository.saveAll(List.of(
+                Product.builder().name("Phone").description("Phone").price(100.0).category("Electronics").stockQuantity(10).sku("PH-1").build(),
+                Product.builder().name("TV").description("TV").price(300.0).category("Electronics").stockQuantity(5).sku("TV-1").build(),
+                Product.builder().name("Mug").description("Mug").price(5.0).category("Kitchen").stockQuantity(50).sku("MG-1").build()));
+        Category electronics = categoryRepository.save(Category.builder().categoryName("Electronics").sortOrder(1).isActive(true).build());
+        categoryRepository.save(Category.builder().categoryName("Phones").parentCategory(electronics).sortOrder(2).isActive(true).build());
+    }
+
+    @Test
+    void controller_reactiveCatalogControllerStreamsProductsTest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/products")
+                        .param("category", "Electronics")
+                        .param("maxPrice", "200")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Phone\""));
+        assertTrue(lines[0].contains("\"sku\":\"PH-1\""));
+
+        MvcResult all = mockMvc.perform(get("/api/reactive/products").param("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(all))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Phone"))
+                .andExpect(jsonPath("$[1].name").value("TV"));
+    }
+
+    @Test
+    void controller_reactiveCatalogControllerCapsJsonAtPageSizeTest() throws Exception {
+        List<Product> bulk = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            bulk.add(Product.builder().name("Cable " + i).description("Cable").price(2.0).category("Cables")
+                    .stockQuantity(1).sku("CB-" + i).build());
+        }
+        productRepository.saveAll(bulk);
+
+        // One JSON array is built in memory, so it stops at spring.data.web.pageable.max-page-size
+        MvcResult json = mockMvc.perform(get("/api/reactive/products").param("category", "Cables")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(200)));
+
+        MvcResult ndjson = mockMvc.perform(get("/api/reactive/products").param("category", "Cables")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ndjson.getAsyncResult(5000);
+        assertEquals(250, ndjson.getResponse().getContentAsString().trim().split("\n").length);
+    }
+
+    @Test
+    void controller_reactiveCatalogControllerCategoriesTest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/categories").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].categoryName").value("Electronics"))
+                .andExpect(jsonPath("$[0].parentCategoryId").doesNotExist())
+                .andExpect(jsonPath("$[1].parentCategoryId").isNumber())
+                .andExpect(jsonPath("$[1].active").value(true));
+    }
+}
@@ -0,0 +1,83 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.CategoryNode;
+import com.examly.springapp.model.Category;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class CategoryTreeTest {
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private CategoryTree categoryTree;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category electronics;
+    private Category phones;
+    private Category smartphones;
+    private Category apparel;
+
+    @BeforeEach
+    void setUp() {
+        electronics = categoryService.createCategory(Category.builder().categoryName("Electronics").sortOrder(1).build());
+        apparel = categoryService.createCategory(Category.builder().categoryName("Apparel").sortOrder(2).build());
+        phones = categoryService.createCategory(Category.builder().categoryName("Phones").sortOrder(0)
+                .parentCategory(electronics).build());
+        smartphones = categoryService.createCategory(Category.builder().categoryName("Smartphones").sortOrder(0)
+                .parentCategory(phones).build());
+    }
+
+    @Test
+    void service_categoryTreeAnswersDescendantQueries() {
+        assertTrue(categoryTree.isDescendant(smartphones.getCategoryId(), electronics.getCategoryId()));
+        assertTrue(categoryTree.isDescendant(phones.getCategoryId(), phones.getCategoryId()));
+        assertFalse(categoryTree.isDescendant(electronics.getCategoryId(), phones.getCategoryId()));
+        assertFalse(categoryTree.isDescendant(smartphones.getCategoryId(), apparel.getCategoryId()));
+        assertEquals(Set.of("Electronics", "Phones", "Smartphones"), Set.copyOf(categoryTree.subtreeNames("Electronics")));
+        assertEquals(List.of("Unknown"), categoryTree.subtreeNames("Unknown"));
+
+        List<CategoryNode> roots = categoryService.getCategoryTree();
+        assertEquals(List.of("Electronics", "Apparel"), roots.stream().map(CategoryNode::name).collect(Collectors.toList()));
+        assertEquals("Smartphones", roots.get(0).children().get(0).children().get(0).name());
+    }
+
+    @Test
+    void service_categoryTreeRebuildsOnWrite() {
+        // Move Phones under Apparel: the old snapshot must be replaced
+        phones.setParentCategory(apparel);
+        categoryService.updateCategory(phones);
+        assertTrue(categoryTree.isDescendant(smartphones.getCategoryId(), apparel.getCategoryId()));
+        assertFalse(categoryTree.isDescendant(smartphones.getCategoryId(), electronics.getCategoryId()));
+    }
+
+    @Test
+    void service_productListingFiltersBySubtree() {
+        productRepository.saveAll(List.of(
+                Product.builder().name("TV").description("d").price(500.0).category("Electronics").stockQuantity(1).build(),
+                Product.builder().name("Pixel").description("d").price(700.0).category("Smartphones").stockQuantity(1).build(),
+                Product.builder().name("Shirt").description("d").price(20.0).category("Apparel").stockQuantity(1).build()));
+
+        PageRequest page = PageRequest.of(0, 20);
+        assertEquals(1, productService.getFilteredProducts("Electronics", false, null, null, page).getTotalElements());
+        assertEquals(2, productService.getFilteredProducts("Electronics", true, null, null, page).getTotalElements());
+        assertEquals(1, productService.getFilteredProducts("Phones", true, null, null, page).getTotalElements());
+        assertEquals(1, productService.getFilteredProducts("Electronics", true, 600.0, null, page).getTotalElements());
+    }
+}
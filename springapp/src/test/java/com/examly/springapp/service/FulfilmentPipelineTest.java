@@ -0,0 +1,208 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.FulfilmentDeadLetter;
+import com.examly.springapp.model.Invoice;
+import com.examly.springapp.model.Order;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.FulfilmentDeadLetterRepository;
+import com.examly.springapp.repository.InvoiceRepository;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class FulfilmentPipelineTest {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private FulfilmentDeadLetterRepository deadLetterRepository;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        deadLetterRepository.deleteAll();
+        invoiceRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        product = productRepository.save(Product.builder().name("Lamp").description("Desk lamp")
+                .price(20.0).category("Home").stockQuantity(10).build());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+
+    private int stock() {
+        return productRepository.findById(product.getProductId()).orElseThrow().getStockQuantity();
+    }
+
+    private double invoices() {
+        var counter = meterRegistry.find("fulfilment.stage.events")
+                .tags("stage", "invoice", "outcome", "processed").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private double stockReleases() {
+        var counter = meterRegistry.find("fulfilment.stage.events")
+                .tags("stage", "stock-release", "outcome", "processed").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void service_cancelledOrderReleasesStockOnce() throws Exception {
+        Order order = orderService.createOrder(Map.of(
+                "customerName", "Kim",
+                "customerEmail", "kim@example.com",
+                "shippingAddress", "2 Hill Rd",
+                "orderItems", List.of(Map.of("productId", product.getProductId(), "quantity", 3))));
+        assertEquals(7, stock());
+
+        orderService.updateOrderStatus(order.getId(), "CANCELLED");
+        await(() -> stock() == 10);
+
+        // The released units are never reserved again, so the order cannot be reopened
+        IllegalArgumentException reopen = assertThrows(IllegalArgumentException.class,
+                () -> orderService.updateOrderStatus(order.getId(), "PENDING"));
+        assertEquals("Cancelled orders cannot be reopened", reopen.getMessage());
+        orderService.updateOrderStatus(order.getId(), "CANCELLED");
+        await(() -> stockReleases() == 1);
+        assertEquals(10, stock());
+    }
+
+    @Test
+    void service_shippedOrderIsInvoicedOnce() throws Exception {
+        Order order = orderService.createOrder(Map.of(
+                "customerName", "Kim",
+                "customerEmail", "kim@example.com",
+                "shippingAddress", "2 Hill Rd",
+                "orderItems", List.of(Map.of("productId", product.getProductId(), "quantity", 3))));
+
+        orderService.updateOrderStatus(order.getId(), "SHIPPED");
+        await(() -> invoiceRepository.findByOrderId(order.getId()).isPresent());
+        Invoice invoice = invoiceRepository.findByOrderId(order.getId()).orElseThrow();
+        assertEquals(60.0, invoice.getTotalAmount());
+        assertEquals("2 Hill Rd", invoice.getBillingAddress());
+
+        // Shipping again after a step back keeps the first invoice
+        orderService.updateOrderStatus(order.getId(), "PENDING");
+        orderService.updateOrderStatus(order.getId(), "SHIPPED");
+        await(() -> invoices() == 2);
+        assertEquals(1, invoiceRepository.count());
+    }
+
+    @Test
+    void service_failingStageIsRetriedThenDeadLettered() throws Exception {
+        AtomicInteger flakyCalls = new AtomicInteger();
+        FulfilmentStage flaky = new FulfilmentStage() {
+            public String name() { return "flaky"; }
+            public void handle(FulfilmentEvent event) {
+                if (flakyCalls.incrementAndGet() < 3) {
+                    throw new IllegalStateException("temporarily unavailable");
+                }
+            }
+        };
+        FulfilmentStage broken = new FulfilmentStage() {
+            public String name() { return "broken"; }
+            public void handle(FulfilmentEvent event) {
+                throw new IllegalStateException("invoice service down");
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FulfilmentPipeline pipeline = new FulfilmentPipeline(List.of(flaky, broken), deadLetterRepository,
+                transactionManager, registry, 10, 2, 3, 1, 50, false);
+        try {
+            assertTrue(pipeline.submit(FulfilmentEvent.placed(42L)));
+            await(() -> !deadLetterRepository.findByOrderIdOrderByIdAsc(42L).isEmpty());
+
+            FulfilmentDeadLetter deadLetter = deadLetterRepository.findByOrderIdOrderByIdAsc(42L).get(0);
+            assertEquals("broken", deadLetter.getStage());
+            assertEquals("PLACED", deadLetter.getEventType());
+            assertEquals(3, deadLetter.getAttempts());
+            assertTrue(deadLetter.getError().contains("invoice service down"));
+            assertEquals(3, flakyCalls.get());
+            assertEquals(2, registry.get("fulfilment.stage.events").tags("stage", "flaky", "outcome", "retried")
+                    .counter().count());
+            assertEquals(1, registry.get("fulfilment.stage.lag").tags("stage", "broken").timer().count());
+        } finally {
+            pipeline.destroy();
+        }
+    }
+
+    @Test
+    void service_eventRejectedAfterCommitIsDeadLettered() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        FulfilmentStage stalled = new FulfilmentStage() {
+            public String name() { return "stalled"; }
+            public void handle(FulfilmentEvent event) throws Exception {
+                started.countDown();
+                proceed.await();
+            }
+        };
+        FulfilmentPipeline pipeline = new FulfilmentPipeline(List.of(stalled), deadLetterRepository,
+                transactionManager, new SimpleMeterRegistry(), 1, 1, 1, 1, 1, false);
+        try {
+            // One event in the stage and one in the queue: the pipeline is saturated
+            assertTrue(pipeline.submit(FulfilmentEvent.placed(1L)));
+            started.await();
+            assertTrue(pipeline.submit(FulfilmentEvent.placed(2L)));
+
+            // Rejected from the after-commit callback, as the event listener would be
+            Order order = new TransactionTemplate(transactionManager).execute(status -> {
+                Order created = orderService.createOrder(Map.of(
+                        "customerName", "Kim",
+                        "customerEmail", "kim@example.com",
+                        "shippingAddress", "2 Hill Rd",
+                        "orderItems", List.of(Map.of("productId", product.getProductId(), "quantity", 1))));
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pipeline.onEvent(FulfilmentEvent.placed(created.getId()));
+                    }
+                });
+                return created;
+            });
+
+            List<FulfilmentDeadLetter> deadLetters = deadLetterRepository.findByOrderIdOrderByIdAsc(order.getId());
+            assertEquals(1, deadLetters.size());
+            assertEquals("Queue full", deadLetters.get(0).getError());
+        } finally {
+            proceed.countDown();
+            pipeline.destroy();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.OrderItemRepository;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "stock.reservation.engine=memory",
+        "stock.reservation.flush-interval-ms=3600000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class InMemoryStockReservationEngineTest {
+    @Autowired
+    private InMemoryStockReservationEngine engine;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product hot;
+    private Product regular;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        hot = productRepository.save(Product.builder().name("Hot").description("Flash sale")
+                .price(5.0).category("Electronics").stockQuantity(300).build());
+        regular = productRepository.save(Product.builder().name("Cable").description("USB")
+                .price(2.0).category("Electronics").stockQuantity(1).build());
+        engine.track(hot.getId());
+    }
+
+    private Map<String, Object> payload(Map<Long, Integer> lines) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        lines.forEach((id, qty) -> items.add(Map.of("productId", id, "quantity", qty)));
+        return Map.of("customerName", "C", "customerEmail", "c@x.com", "shippingAddress", "Addr",
+                "orderItems", items);
+    }
+
+    private long pendingItems() {
+        return orderItemRepository.findAll().stream().filter(i -> i.isStockPending()).count();
+    }
+
+    @Test
+    void service_concurrentReservationsAreExactAndWrittenBehind() throws Exception {
+        Map<String, Object> payload = payload(Map.of(hot.getId(), 1));
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    orderService.createOrder(payload);
+                    placed.incrementAndGet();
+                } catch (IllegalArgumentException ex) {
+                    // sold out
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertEquals(0, failed.get());
+        assertEquals(300, placed.get());
+        assertEquals(0, engine.available(hot.getId()));
+        // Not flushed yet: the row still holds the old value and every item is pending
+        assertEquals(300, productRepository.findById(hot.getId()).orElseThrow().getStockQuantity());
+        assertEquals(300, pendingItems());
+
+        engine.flush();
+        assertEquals(0, productRepository.findById(hot.getId()).orElseThrow().getStockQuantity());
+        assertEquals(0, pendingItems());
+    }
+
+    @Test
+    void service_rolledBackOrderReleasesMemoryReservation() {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        lines.put(hot.getId(), 10);
+        lines.put(regular.getId(), 1);
+        orderService.createOrder(payload(lines));
+        assertEquals(290, engine.available(hot.getId()));
+        assertEquals(0, productRepository.findById(regular.getId()).orElseThrow().getStockQuantity());
+
+        // The untracked product is now sold out, so the whole order rolls back
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(payload(lines)));
+        assertEquals(290, engine.available(hot.getId()));
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void service_restartRecoversUnflushedReservationsFromDatabase() {
+        orderService.createOrder(payload(Map.of(hot.getId(), 40)));
+        orderService.createOrder(payload(Map.of(hot.getId(), 60)));
+        assertEquals(2, pendingItems());
+
+        // Simulate a crash: the old engine is dropped without flushing and a new one starts
+        InMemoryStockReservationEngine restarted = new InMemoryStockReservationEngine(
+                productRepository, productCache, jdbcTemplate, transactionManager, List.of(hot.getId()), 16);
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(200, restarted.available(hot.getId()));
+        assertEquals(200, productRepository.findById(hot.getId()).orElseThrow().getStockQuantity());
+        assertEquals(0, pendingItems());
+    }
+}
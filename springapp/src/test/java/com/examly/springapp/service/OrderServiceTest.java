@@ -0,0 +1,168 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.config.SqlStatementStats;
+import com.examly.springapp.model.Order;
+import com.examly.springapp.model.Product;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.ProductRepository;
+import com.examly.springapp.support.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class OrderServiceTest {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            products.add(Product.builder().name("P" + i).description("D").price(10.0 + i)
+                    .category("Electronics").stockQuantity(100).build());
+        }
+        products = productRepository.saveAll(products);
+    }
+
+    private Map<String, Object> payload(int lines) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(Map.of("productId", products.get(i).getId(), "quantity", 2));
+        }
+        return Map.of(
+                "customerName", "Bulk Buyer",
+                "customerEmail", "bulk@example.com",
+                "shippingAddress", "1 Dock Rd",
+                "orderItems", items);
+    }
+
+    @Test
+    void service_createOrderProductStatementsIndependentOfLineCount() {
+        SqlStatementRecorder.reset();
+        orderService.createOrder(payload(1));
+        long smallSelects = SqlStatementRecorder.count("select", "product");
+        long smallUpdates = SqlStatementRecorder.count("update", "product");
+
+        SqlStatementRecorder.reset();
+        Order large = orderService.createOrder(payload(30));
+        long largeSelects = SqlStatementRecorder.count("select", "product");
+        long largeUpdates = SqlStatementRecorder.count("update", "product");
+
+        assertEquals(30, large.getOrderItems().size());
+        assertEquals(1, largeSelects, "products should be loaded with a single IN query");
+        assertEquals(smallSelects, largeSelects);
+        // Stock is decremented through ProductStockRepository's conditional JDBC batch (counted in
+        // service_stockDecrementIsOneBatchExecution), never through per-entity dirty checking
+        assertEquals(0, largeUpdates);
+        assertEquals(smallUpdates, largeUpdates);
+        assertEquals(96, productRepository.findById(products.get(0).getId()).orElseThrow().getStockQuantity());
+        assertEquals(98, productRepository.findById(products.get(29).getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void service_stockDecrementIsOneBatchExecution() {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Product product : products) {
+            quantities.put(product.getId(), 2);
+        }
+        quantities.put(products.get(0).getId(), 101);
+
+        // Counted at the JDBC statement, under JdbcTemplate: one executeBatch for all 30 rows
+        SqlStatementStats.begin();
+        Set<Long> rejected = productRepository.decrementStock(quantities);
+        SqlStatementStats stats = SqlStatementStats.end();
+
+        assertEquals(1, stats.statements());
+        assertEquals(Set.of(products.get(0).getId()), rejected);
+        assertEquals(100, productRepository.findById(products.get(0).getId()).orElseThrow().getStockQuantity());
+        assertEquals(98, productRepository.findById(products.get(29).getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void service_createOrderInsertsItemsAsOneBatch() {
+        SqlStatementRecorder.reset();
+        Order order = orderService.createOrder(payload(30));
+
+        assertEquals(30, order.getOrderItems().size());
+        // A batch is prepared once; with IDENTITY ids every item would be its own INSERT
+        assertEquals(1, SqlStatementRecorder.count("insert", "orders"));
+        assertEquals(1, SqlStatementRecorder.count("insert", "order_item"));
+        assertEquals(30, orderRepository.findWithItemsById(order.getId()).orElseThrow().getOrderItems().size());
+    }
+
+    @Test
+    void service_createOrderValidatesCombinedQuantityBeforeChangingStock() {
+        Long id = products.get(0).getId();
+        Map<String, Object> payload = Map.of(
+                "customerName", "A", "customerEmail", "a@b.com", "shippingAddress", "X",
+                "orderItems", List.of(
+                        Map.of("productId", products.get(1).getId(), "quantity", 1),
+                        Map.of("productId", id, "quantity", 60),
+                        Map.of("productId", id, "quantity", 60)));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrder(payload));
+        assertEquals("Insufficient stock", ex.getMessage());
+        assertEquals(100, productRepository.findById(id).orElseThrow().getStockQuantity());
+        assertEquals(100, productRepository.findById(products.get(1).getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void service_concurrentOrdersNeverOversell() throws Exception {
+        Product hot = productRepository.save(Product.builder().name("Hot").description("Flash sale")
+                .price(5.0).category("Electronics").stockQuantity(500).build());
+        int orders = 2000;
+        Map<String, Object> payload = Map.of(
+                "customerName", "C", "customerEmail", "c@x.com", "shippingAddress", "Addr",
+                "orderItems", List.of(Map.of("productId", hot.getId(), "quantity", 1)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < orders; i++) {
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    orderService.createOrder(payload);
+                    placed.incrementAndGet();
+                } catch (IllegalArgumentException ex) {
+                    rejected.incrementAndGet();
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertEquals(0, failed.get());
+        assertEquals(500, placed.get());
+        assertEquals(orders - 500, rejected.get());
+        assertEquals(0, productRepository.findById(hot.getId()).orElseThrow().getStockQuantity());
+        assertEquals(500, orderRepository.count());
+    }
+}
@@ -0,0 +1,94 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    private static Product product(long id, String name, String description, String sku, String category) {
+        Product product = Product.builder().name(name).description(description).sku(sku).category(category)
+                .price(1.0).build();
+        product.setProductId(id);
+        return product;
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).stream().map(ProductSearchIndex.SearchHit::productId).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Only the incremental API is exercised, so no repository is needed
+        index = new ProductSearchIndex(null, null);
+        index.indexAll(List.of(
+                product(1, "Wireless Mouse", "Ergonomic mouse with USB receiver", "MS-100", "Electronics"),
+                product(2, "Mechanical Keyboard", "Keyboard with brown switches", "KB-200", "Electronics"),
+                product(3, "Mouse Pad", "Large cloth pad for any mouse", "MP-300", "Accessories"),
+                product(4, "Café Table", "Round wooden table", "TB-400", "Furniture")));
+    }
+
+    @Test
+    void service_searchRanksNameMatchesFirst() {
+        List<Long> hits = ids("mouse");
+        assertEquals(List.of(1L, 3L), hits.subList(0, 2).stream().sorted().toList());
+        assertFalse(hits.contains(2L));
+        // Matching every token beats matching one
+        assertEquals(3L, ids("mouse pad").get(0));
+    }
+
+    @Test
+    void service_searchMatchesPrefixTyposSkuAndAccents() {
+        assertEquals(List.of(2L), ids("mech"));
+        assertEquals(List.of(2L), ids("keybaord"));
+        assertEquals(List.of(2L), ids("kb-200"));
+        assertEquals(List.of(4L), ids("cafe"));
+        assertEquals(List.of(4L), ids("furniture"));
+        assertTrue(ids("zzz").isEmpty());
+        assertTrue(ids("  ").isEmpty());
+    }
+
+    @Test
+    void service_searchFollowsUpdatesAndDeletes() {
+        index.index(product(2, "Gaming Keyboard", "RGB keyboard", "KB-200", "Electronics"));
+        assertEquals(List.of(2L), ids("gaming"));
+        assertTrue(ids("switches").isEmpty());
+
+        index.remove(1L);
+        assertEquals(List.of(3L), ids("wireless mouse"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void service_searchIndexCompactsTombstones() {
+        for (int round = 0; round < 3; round++) {
+            for (long id = 100; id < 2100; id++) {
+                index.index(product(id, "Bulk item " + id, "Round " + round, "B-" + id, "Bulk"));
+            }
+        }
+        assertEquals(2004, index.size());
+        assertEquals(1500L, ids("b-1500").get(0));
+        assertEquals(10, index.search("round", 10).size());
+    }
+
+    @Test
+    void service_searchStopsEarlyWithTheExactTopHits() {
+        // Enough postings per term for impact-ordered lists that are read in rounds
+        String[] colours = {"red", "green", "blue", "black"};
+        for (long id = 100; id < 12100; id++) {
+            String repeated = "steel ".repeat((int) (id % 5) + 1);
+            index.index(product(id, colours[(int) (id % 4)] + " steel lamp " + id,
+                    repeated + "desk lamp " + "x".repeat((int) (id % 7)), "L-" + id, "Lighting"));
+        }
+        for (String query : List.of("steel lamp", "steel", "blue lam", "stel desk")) {
+            List<ProductSearchIndex.SearchHit> all = index.search(query, index.size());
+            assertEquals(all.subList(0, 10), index.search(query, 10), query);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.examly.springapp.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Test-only StatementInspector that records every SQL string Hibernate prepares.
+ * A JDBC batch is prepared once, so batched statements are recorded once. Nothing is
+ * kept until the first {@link #reset()}, so contexts that never ask stay unaffected.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    private static volatile boolean recording;
+
+    @Override
+    public String inspect(String sql) {
+        if (!recording) {
+            return sql;
+        }
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+            recording = true;
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    public static long count(String prefix, String table) {
+        return statements().stream()
+                .filter(sql -> sql.trim().startsWith(prefix))
+                .filter(sql -> sql.matches("(?s).*\\b(from|update|into)\\s+" + table + "\\b.*"))
+                .count();
+    }
+}